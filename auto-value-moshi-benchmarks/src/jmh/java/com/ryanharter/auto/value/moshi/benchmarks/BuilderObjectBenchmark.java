@@ -0,0 +1,56 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.squareup.moshi.JsonAdapter;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compares the generated adapter for a builder based type to reflection. */
+@State(Scope.Benchmark)
+public class BuilderObjectBenchmark {
+  private static final String JSON = "{"
+      + "\"id\":1,"
+      + "\"name\":\"child\","
+      + "\"score\":0.5,"
+      + "\"active\":true,"
+      + "\"tags\":[\"one\",\"two\"],"
+      + "\"parent\":{"
+      + "\"id\":2,"
+      + "\"name\":\"parent\","
+      + "\"description\":\"A parent\","
+      + "\"score\":1.5,"
+      + "\"active\":false,"
+      + "\"tags\":[]"
+      + "}"
+      + "}";
+
+  private JsonAdapter<BuilderObject> generated;
+  private JsonAdapter<BuilderPojo> reflection;
+  private BuilderObject generatedValue;
+  private BuilderPojo reflectionValue;
+
+  @Setup public void setup() throws IOException {
+    generated = Moshis.generated().adapter(BuilderObject.class);
+    reflection = Moshis.reflection().adapter(BuilderPojo.class);
+    generatedValue = generated.fromJson(JSON);
+    reflectionValue = reflection.fromJson(JSON);
+  }
+
+  @Benchmark public BuilderObject generatedFromJson() throws IOException {
+    return generated.fromJson(JSON);
+  }
+
+  @Benchmark public BuilderPojo reflectionFromJson() throws IOException {
+    return reflection.fromJson(JSON);
+  }
+
+  @Benchmark public String generatedToJson() {
+    return generated.toJson(generatedValue);
+  }
+
+  @Benchmark public String reflectionToJson() {
+    return reflection.toJson(reflectionValue);
+  }
+}
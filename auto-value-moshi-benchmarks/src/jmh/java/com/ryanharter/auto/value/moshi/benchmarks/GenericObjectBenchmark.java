@@ -0,0 +1,44 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.ryanharter.auto.value.moshi.test.GenericNativeMoshiClass;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Types;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compares the generated external adapter for a generic, builder based type to reflection. */
+@State(Scope.Benchmark)
+public class GenericObjectBenchmark {
+  private static final String JSON = "{\"property\":\"value\"}";
+
+  private JsonAdapter<GenericNativeMoshiClass<String>> generated;
+  private JsonAdapter<GenericPojo<String>> reflection;
+  private GenericNativeMoshiClass<String> generatedValue;
+  private GenericPojo<String> reflectionValue;
+
+  @Setup public void setup() throws IOException {
+    generated = Moshis.generated().adapter(Types.newParameterizedType(GenericNativeMoshiClass.class, String.class));
+    reflection = Moshis.reflection().adapter(Types.newParameterizedType(GenericPojo.class, String.class));
+    generatedValue = generated.fromJson(JSON);
+    reflectionValue = reflection.fromJson(JSON);
+  }
+
+  @Benchmark public GenericNativeMoshiClass<String> generatedFromJson() throws IOException {
+    return generated.fromJson(JSON);
+  }
+
+  @Benchmark public GenericPojo<String> reflectionFromJson() throws IOException {
+    return reflection.fromJson(JSON);
+  }
+
+  @Benchmark public String generatedToJson() {
+    return generated.toJson(generatedValue);
+  }
+
+  @Benchmark public String reflectionToJson() {
+    return reflection.toJson(reflectionValue);
+  }
+}
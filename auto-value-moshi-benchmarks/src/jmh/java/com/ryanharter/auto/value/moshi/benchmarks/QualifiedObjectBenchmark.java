@@ -0,0 +1,43 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.ryanharter.auto.value.moshi.test.WithJsonQualifierAnnotationsObject;
+import com.squareup.moshi.JsonAdapter;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compares the generated adapter for a type with renamed and qualified properties to reflection. */
+@State(Scope.Benchmark)
+public class QualifiedObjectBenchmark {
+  private static final String JSON = "{\"key1\":\"A Value\",\"b\":[\"one\",\"two\",\"three\"]}";
+
+  private JsonAdapter<WithJsonQualifierAnnotationsObject> generated;
+  private JsonAdapter<QualifiedPojo> reflection;
+  private WithJsonQualifierAnnotationsObject generatedValue;
+  private QualifiedPojo reflectionValue;
+
+  @Setup public void setup() throws IOException {
+    generated = Moshis.generated().adapter(WithJsonQualifierAnnotationsObject.class);
+    reflection = Moshis.reflection().adapter(QualifiedPojo.class);
+    generatedValue = generated.fromJson(JSON);
+    reflectionValue = reflection.fromJson(JSON);
+  }
+
+  @Benchmark public WithJsonQualifierAnnotationsObject generatedFromJson() throws IOException {
+    return generated.fromJson(JSON);
+  }
+
+  @Benchmark public QualifiedPojo reflectionFromJson() throws IOException {
+    return reflection.fromJson(JSON);
+  }
+
+  @Benchmark public String generatedToJson() {
+    return generated.toJson(generatedValue);
+  }
+
+  @Benchmark public String reflectionToJson() {
+    return reflection.toJson(reflectionValue);
+  }
+}
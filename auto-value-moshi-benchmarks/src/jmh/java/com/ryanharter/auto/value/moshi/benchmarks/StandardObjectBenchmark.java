@@ -0,0 +1,65 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.ryanharter.auto.value.moshi.test.StandardObject;
+import com.squareup.moshi.JsonAdapter;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compares the generated adapter for a type with every standard property type to reflection. */
+@State(Scope.Benchmark)
+public class StandardObjectBenchmark {
+  private static final String JSON = "{"
+      + "\"aBoolean\":true,"
+      + "\"aByte\":1,"
+      + "\"aChar\":\"a\","
+      + "\"aDouble\":1.0,"
+      + "\"aFloat\":1.2,"
+      + "\"aInt\":2,"
+      + "\"aLong\":-9223372036854775808,"
+      + "\"aShort\":3,"
+      + "\"aBooleanObj\":false,"
+      + "\"aByteObj\":128,"
+      + "\"aCharacterObj\":\"c\","
+      + "\"aDoubleObj\":1.0,"
+      + "\"aFloatObj\":3.0,"
+      + "\"aIntegerObj\":42,"
+      + "\"aLongObj\":9223372036854775807,"
+      + "\"aShortObj\":5,"
+      + "\"aString\":\"A string\","
+      + "\"aList\":[\"one\",\"two\",\"three\"],"
+      + "\"aMap\":{\"one\":1,\"two\":2,\"three\":3},"
+      + "\"anEnum\":\"VALUE_1\","
+      + "\"anArray\":[1,2,3,5,8,13,21]"
+      + "}";
+
+  private JsonAdapter<StandardObject> generated;
+  private JsonAdapter<StandardPojo> reflection;
+  private StandardObject generatedValue;
+  private StandardPojo reflectionValue;
+
+  @Setup public void setup() throws IOException {
+    generated = Moshis.generated().adapter(StandardObject.class);
+    reflection = Moshis.reflection().adapter(StandardPojo.class);
+    generatedValue = generated.fromJson(JSON);
+    reflectionValue = reflection.fromJson(JSON);
+  }
+
+  @Benchmark public StandardObject generatedFromJson() throws IOException {
+    return generated.fromJson(JSON);
+  }
+
+  @Benchmark public StandardPojo reflectionFromJson() throws IOException {
+    return reflection.fromJson(JSON);
+  }
+
+  @Benchmark public String generatedToJson() {
+    return generated.toJson(generatedValue);
+  }
+
+  @Benchmark public String reflectionToJson() {
+    return reflection.toJson(reflectionValue);
+  }
+}
@@ -0,0 +1,11 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.ryanharter.auto.value.moshi.MoshiAdapterFactory;
+import com.squareup.moshi.JsonAdapter;
+
+@MoshiAdapterFactory
+public abstract class BenchmarkAdapterFactory implements JsonAdapter.Factory {
+  public static JsonAdapter.Factory create() {
+    return new AutoValueMoshi_BenchmarkAdapterFactory();
+  }
+}
@@ -0,0 +1,44 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/** A builder based type with a mix of required, optional and nested properties. */
+@AutoValue public abstract class BuilderObject {
+  public static JsonAdapter<BuilderObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_BuilderObject.MoshiJsonAdapter(moshi);
+  }
+
+  public abstract long id();
+
+  public abstract String name();
+
+  @Nullable public abstract String description();
+
+  public abstract double score();
+
+  public abstract boolean active();
+
+  public abstract List<String> tags();
+
+  @Nullable public abstract BuilderObject parent();
+
+  public static Builder builder() {
+    return new AutoValue_BuilderObject.Builder();
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder id(long id);
+    public abstract Builder name(String name);
+    public abstract Builder description(String description);
+    public abstract Builder score(double score);
+    public abstract Builder active(boolean active);
+    public abstract Builder tags(List<String> tags);
+    public abstract Builder parent(BuilderObject parent);
+    public abstract BuilderObject build();
+  }
+}
@@ -0,0 +1,14 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import java.util.List;
+
+/** Reflective equivalent of {@link BuilderObject}. */
+public final class BuilderPojo {
+  long id;
+  String name;
+  String description;
+  double score;
+  boolean active;
+  List<String> tags;
+  BuilderPojo parent;
+}
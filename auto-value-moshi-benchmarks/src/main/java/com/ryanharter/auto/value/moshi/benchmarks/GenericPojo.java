@@ -0,0 +1,6 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+/** Reflective equivalent of {@code GenericNativeMoshiClass}. */
+public final class GenericPojo<T> {
+  T property;
+}
@@ -0,0 +1,30 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.ryanharter.auto.value.moshi.test.FunctionalTestsAdapterFactory;
+import com.ryanharter.auto.value.moshi.test.ReverseList;
+import com.ryanharter.auto.value.moshi.test.ReverseString;
+import com.squareup.moshi.Moshi;
+
+/** The Moshi instances compared by the benchmarks. */
+public final class Moshis {
+  private Moshis() {
+  }
+
+  /** Returns a Moshi that uses the generated adapters for AutoValue types. */
+  public static Moshi generated() {
+    return new Moshi.Builder()
+        .add(FunctionalTestsAdapterFactory.create())
+        .add(BenchmarkAdapterFactory.create())
+        .add(new ReverseList.JsonAdapter())
+        .add(new ReverseString.JsonAdapter())
+        .build();
+  }
+
+  /** Returns a Moshi that falls back to reflection for the POJO equivalents. */
+  public static Moshi reflection() {
+    return new Moshi.Builder()
+        .add(new ReverseList.JsonAdapter())
+        .add(new ReverseString.JsonAdapter())
+        .build();
+  }
+}
@@ -0,0 +1,11 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import com.ryanharter.auto.value.moshi.test.ReverseList;
+import com.squareup.moshi.Json;
+import java.util.List;
+
+/** Reflective equivalent of {@code WithJsonQualifierAnnotationsObject}. */
+public final class QualifiedPojo {
+  @Json(name = "key1") String a;
+  @ReverseList List<String> b;
+}
@@ -0,0 +1,33 @@
+package com.ryanharter.auto.value.moshi.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+
+/** Reflective equivalent of {@code StandardObject}. */
+public final class StandardPojo {
+  boolean aBoolean;
+  byte aByte;
+  char aChar;
+  double aDouble;
+  float aFloat;
+  int aInt;
+  long aLong;
+  short aShort;
+  Boolean aBooleanObj;
+  Byte aByteObj;
+  Character aCharacterObj;
+  Double aDoubleObj;
+  Float aFloatObj;
+  Integer aIntegerObj;
+  Long aLongObj;
+  Short aShortObj;
+  String aString;
+  List<String> aList;
+  Map<String, Integer> aMap;
+  AnEnum anEnum;
+  int[] anArray;
+
+  enum AnEnum {
+    VALUE_1
+  }
+}
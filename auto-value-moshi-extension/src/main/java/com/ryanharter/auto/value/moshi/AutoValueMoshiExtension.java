@@ -1,10 +1,14 @@
 package com.ryanharter.auto.value.moshi;
 
+import com.google.auto.common.AnnotationMirrors;
 import com.google.auto.common.GeneratedAnnotationSpecs;
 import com.google.auto.common.MoreElements;
+import com.google.auto.common.MoreTypes;
 import com.google.auto.service.AutoService;
+import com.google.auto.value.AutoValue;
 import com.google.auto.value.extension.AutoValueExtension;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
@@ -27,6 +31,7 @@ import com.squareup.javapoet.WildcardTypeName;
 import com.squareup.moshi.Json;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonClass;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonQualifier;
 import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.JsonWriter;
@@ -37,22 +42,25 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
@@ -62,12 +70,44 @@ import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.element.Modifier.VOLATILE;
 
 @AutoService(AutoValueExtension.class)
 public final class AutoValueMoshiExtension extends AutoValueExtension {
   public static final String GENERATED_COMMENTS = "https://github.com/rharter/auto-value-moshi";
   private static final ClassName ADAPTER_CLASS_NAME = ClassName.get(JsonAdapter.class);
   private static final String MOSHI_GENERATOR_KEY = "avm";
+  /** The name of the {@link AdapterMetrics} passed to the delegates of metered methods. */
+  private static final String METRICS_NAME = "metrics";
+  private static final ClassName STRING_CLASS_NAME = ClassName.get(String.class);
+  /** Type arguments a generic adapter remembers the resolved property types of. */
+  private static final int RESOLVED_TYPE_CACHE_SIZE = 64;
+  /**
+   * Types that are read and written directly through {@link JsonReader} and {@link JsonWriter}
+   * instead of a delegate adapter. Boxed types are boxed only once their primitive has been read.
+   */
+  private static final ImmutableSet<TypeName> INLINE_TYPES = ImmutableSet.of(
+      TypeName.BOOLEAN, TypeName.INT, TypeName.LONG, TypeName.DOUBLE, STRING_CLASS_NAME,
+      TypeName.BOOLEAN.box(), TypeName.INT.box(), TypeName.LONG.box(), TypeName.DOUBLE.box());
+  /** Joined at runtime, so shading doesn't relocate the package of the user's Guava. */
+  private static final String GUAVA_COLLECT_PACKAGE = String.join(".", "com", "google", "common",
+      "collect");
+  private static final ClassName IMMUTABLE_LIST = ClassName.get(GUAVA_COLLECT_PACKAGE,
+      "ImmutableList");
+  private static final ClassName IMMUTABLE_SET = ClassName.get(GUAVA_COLLECT_PACKAGE,
+      "ImmutableSet");
+  private static final ClassName IMMUTABLE_MAP = ClassName.get(GUAVA_COLLECT_PACKAGE,
+      "ImmutableMap");
+  /** Collection types read and written with a loop, mapped to the Guava type of their kind. */
+  private static final ImmutableMap<ClassName, ClassName> INLINE_COLLECTION_TYPES =
+      ImmutableMap.<ClassName, ClassName>builder()
+          .put(ClassName.get(List.class), IMMUTABLE_LIST)
+          .put(ClassName.get(Set.class), IMMUTABLE_SET)
+          .put(ClassName.get(Map.class), IMMUTABLE_MAP)
+          .put(IMMUTABLE_LIST, IMMUTABLE_LIST)
+          .put(IMMUTABLE_SET, IMMUTABLE_SET)
+          .put(IMMUTABLE_MAP, IMMUTABLE_MAP)
+          .build();
 
   private static class Property {
     final String methodName;
@@ -79,15 +119,18 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     final boolean isTransient;
     final ImmutableSet<AnnotationMirror> jsonQualifiers;
     final boolean hasJsonQualifiers;
+    /** False if the AutoValue class opted out of inlining through MoshiAdapterOptions. */
+    final boolean inlineTypes;
 
     @Nullable
     static Property create(
         Messager messager,
         String name,
         ExecutableElement element,
-        TypeMirror actualType
+        TypeMirror actualType,
+        boolean inlineTypes
     ) {
-      Property property = new Property(name, element, actualType);
+      Property property = new Property(name, element, actualType, inlineTypes);
       if (property.isTransient() && !property.nullable()) {
         messager.printMessage(Diagnostic.Kind.ERROR, "Required property cannot be transient!", element);
         return null;
@@ -96,10 +139,12 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       }
     }
 
-    private Property(String name, ExecutableElement element, TypeMirror actualType) {
+    private Property(String name, ExecutableElement element, TypeMirror actualType,
+        boolean inlineTypes) {
       this.methodName = element.getSimpleName().toString();
       this.humanName = name;
       this.element = element;
+      this.inlineTypes = inlineTypes;
 
       type = TypeName.get(actualType);
       builderType = TypeName.get(element.getReturnType());
@@ -119,6 +164,27 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       hasJsonQualifiers = !jsonQualifiers.isEmpty();
     }
 
+    private Property(Property property, TypeName type) {
+      this.methodName = property.methodName;
+      this.humanName = property.humanName;
+      this.element = property.element;
+      this.type = type;
+      this.builderType = property.builderType;
+      this.annotations = property.annotations;
+      this.isTransient = property.isTransient;
+      this.jsonQualifiers = property.jsonQualifiers;
+      this.hasJsonQualifiers = property.hasJsonQualifiers;
+      this.inlineTypes = property.inlineTypes;
+    }
+
+    /**
+     * Returns a copy of this property with the type variables of its type replaced by
+     * {@code typeArguments}. The builder type is kept, as setters are declared with it.
+     */
+    Property specialize(Map<TypeVariableName, TypeName> typeArguments) {
+      return new Property(this, substitute(type, typeArguments));
+    }
+
     String serializedName() {
       Json json = element.getAnnotation(Json.class);
       if (json != null) {
@@ -136,6 +202,14 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       return isTransient;
     }
 
+    /**
+     * Returns true if this property is read and written inline in the generated adapter, without
+     * a delegate {@link JsonAdapter}. Qualified properties always go through a delegate.
+     */
+    boolean isInlined() {
+      return inlineTypes && !hasJsonQualifiers && INLINE_TYPES.contains(type);
+    }
+
     public String nullableAnnotation() {
       for (String annotationString : annotations) {
         if (annotationString.equals("@Nullable") || annotationString.endsWith(".Nullable")) {
@@ -146,6 +220,33 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     }
   }
 
+  /** A List, Set or Map property read and written with a loop in the generated adapter. */
+  private static final class InlineCollection {
+    final ParameterizedTypeName type;
+    /** The Guava type of the collection's kind, which it is built as if declared as one. */
+    final ClassName immutableType;
+    /** The type of the elements, or of the values of a map. */
+    final TypeName element;
+    /** True if the elements are read and written inline rather than through their adapter. */
+    final boolean inlineElements;
+
+    InlineCollection(ParameterizedTypeName type, ClassName immutableType, TypeName element,
+        boolean inlineElements) {
+      this.type = type;
+      this.immutableType = immutableType;
+      this.element = element;
+      this.inlineElements = inlineElements;
+    }
+
+    boolean isMap() {
+      return immutableType.equals(IMMUTABLE_MAP);
+    }
+
+    boolean isSet() {
+      return immutableType.equals(IMMUTABLE_SET);
+    }
+  }
+
   @Override
   public IncrementalExtensionType incrementalType(ProcessingEnvironment processingEnvironment) {
     return IncrementalExtensionType.ISOLATING;
@@ -203,11 +304,109 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     return false;
   }
 
-  private static boolean generateExternalAdapter(TypeElement element) {
+  static boolean generateExternalAdapter(TypeElement element) {
     JsonClass jsonClass = element.getAnnotation(JsonClass.class);
     return jsonClass != null && jsonClass.generateAdapter() && MOSHI_GENERATOR_KEY.equals(jsonClass.generator());
   }
 
+  /**
+   * Returns the name of the external adapter generated for {@code element}, or null if it is not
+   * annotated with {@code @JsonClass(generateAdapter = true, generator = "avm")}. The adapter's
+   * constructor takes the {@code Moshi} instance, followed by the {@code Type[]} of the type
+   * arguments for generic types.
+   */
+  @Nullable
+  public static ClassName externalAdapterName(TypeElement element) {
+    if (!generateExternalAdapter(element)) {
+      return null;
+    }
+    ClassName className = ClassName.get(element);
+    return ClassName.get(className.packageName(),
+        Types.generatedJsonAdapterName(Joiner.on("$").join(className.simpleNames())));
+  }
+
+  /**
+   * Returns the type arguments of each instantiation {@code element} declares with
+   * {@link MoshiSpecialization}, mapped to the name of the specialized adapter generated for it.
+   * The adapter's constructor only takes the {@code Moshi} instance. Instantiations the extension
+   * rejects because of the number or kind of their type arguments are left out.
+   */
+  public static Map<List<TypeMirror>, ClassName> specializedAdapterNames(TypeElement element) {
+    Map<List<TypeMirror>, ClassName> names = new LinkedHashMap<>();
+    for (List<TypeMirror> arguments : readSpecializations(element)) {
+      if (arguments.size() == element.getTypeParameters().size()
+          && arguments.stream().allMatch(AutoValueMoshiExtension::isSpecializable)) {
+        names.put(arguments, specializedAdapterName(generatedAdapterName(element), arguments));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Returns the name of the adapter generated for {@code element}, as referenced from its package.
+   * Adapters nested in the generated class are reachable through the final AutoValue class, which
+   * inherits them.
+   */
+  private static ClassName generatedAdapterName(TypeElement element) {
+    ClassName externalAdapter = externalAdapterName(element);
+    if (externalAdapter != null) {
+      return externalAdapter;
+    }
+    ClassName className = ClassName.get(element);
+    return ClassName.get(className.packageName(),
+        "AutoValue_" + Joiner.on("_").join(className.simpleNames()))
+        .nestedClass("MoshiJsonAdapter");
+  }
+
+  private static ClassName specializedAdapterName(ClassName genericAdapter,
+      List<TypeMirror> arguments) {
+    String suffix = arguments.stream()
+        .map(argument -> Joiner.on("_").join(ClassName.get(MoreTypes.asTypeElement(argument))
+            .simpleNames()))
+        .collect(Collectors.joining("_"));
+    return genericAdapter.peerClass(genericAdapter.simpleName() + "_" + suffix);
+  }
+
+  /** Returns true if {@code type} is a class without type parameters. */
+  private static boolean isSpecializable(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED
+        && MoreTypes.asTypeElement(type).getTypeParameters().isEmpty();
+  }
+
+  /**
+   * Returns the type arguments of the {@link MoshiSpecialization}s on {@code element}, whether
+   * declared once or repeated in their container.
+   */
+  private static List<List<TypeMirror>> readSpecializations(TypeElement element) {
+    List<AnnotationMirror> specializations = new ArrayList<>();
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      TypeElement annotationType = MoreElements.asType(annotation.getAnnotationType().asElement());
+      if (annotationType.getQualifiedName()
+          .contentEquals(MoshiSpecialization.class.getCanonicalName())) {
+        specializations.add(annotation);
+      } else if (annotationType.getQualifiedName()
+          .contentEquals(MoshiSpecialization.List.class.getCanonicalName())) {
+        for (AnnotationValue value : annotationValues(annotation)) {
+          specializations.add((AnnotationMirror) value.getValue());
+        }
+      }
+    }
+    List<List<TypeMirror>> arguments = new ArrayList<>(specializations.size());
+    for (AnnotationMirror specialization : specializations) {
+      arguments.add(annotationValues(specialization).stream()
+          .map(value -> (TypeMirror) value.getValue())
+          .collect(Collectors.toList()));
+    }
+    return arguments;
+  }
+
+  private static List<? extends AnnotationValue> annotationValues(AnnotationMirror annotation) {
+    @SuppressWarnings("unchecked")
+    List<? extends AnnotationValue> values = (List<? extends AnnotationValue>)
+        AnnotationMirrors.getAnnotationValue(annotation, "value").getValue();
+    return values;
+  }
+
   @Override public String generateClass(Context context, String className, String classToExtend,
       boolean isFinal) {
     List<Property> properties = readProperties(context);
@@ -242,10 +441,42 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     TypeSpec.Builder jsonAdapterBuilder = createJsonAdapter(classNameClass,
         autoValueClassName,
         genericTypeNames,
+        ImmutableMap.of(),
         properties,
         context,
         adapterClassName);
 
+    // Non-generic adapters for the instantiations declared with @MoshiSpecialization
+    List<TypeSpec.Builder> specializedAdapterBuilders = new ArrayList<>();
+    List<String> specializedAdapterNames = new ArrayList<>();
+    for (List<TypeMirror> arguments : readSpecializations(context.autoValueClass())) {
+      ImmutableMap<TypeVariableName, TypeName> typeArguments =
+          specializationArguments(context, arguments);
+      if (typeArguments == null) {
+        continue;
+      }
+      String specializedAdapterName = specializedAdapterName(
+          ClassName.get(context.packageName(), adapterClassName), arguments).simpleName();
+      if (specializedAdapterNames.contains(specializedAdapterName)) {
+        context.processingEnvironment().getMessager().printMessage(Diagnostic.Kind.ERROR,
+            String.format("Duplicate specialized adapter %s, the type arguments of each "
+                + "@MoshiSpecialization need distinct simple names.", specializedAdapterName),
+            context.autoValueClass());
+        continue;
+      }
+      specializedAdapterNames.add(specializedAdapterName);
+      List<Property> specializedProperties = properties.stream()
+          .map(property -> property.specialize(typeArguments))
+          .collect(Collectors.toList());
+      specializedAdapterBuilders.add(createJsonAdapter(classNameClass,
+          autoValueClassName,
+          null,
+          typeArguments,
+          specializedProperties,
+          context,
+          specializedAdapterName));
+    }
+
     Optional<AnnotationSpec> generatedAnnotation = GeneratedAnnotationSpecs.generatedAnnotationSpec(
         context.processingEnvironment().getElementUtils(),
         context.processingEnvironment().getSourceVersion(),
@@ -278,12 +509,17 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       }
     }
 
+    List<ClassName> specializedAdapterFqcns = specializedAdapterNames.stream()
+        .map(adapterFqcn::peerClass)
+        .collect(Collectors.toList());
+
     ProguardConfig proguardConfig = ProguardConfig.create(
         generateExternalAdapter,
         proguardTarget,
         adapterFqcn,
         adapterConstructorParams,
-        qualifierProperties
+        qualifierProperties,
+        specializedAdapterFqcns
     );
 
     Filer filer = context.processingEnvironment().getFiler();
@@ -301,20 +537,24 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     };
 
     if (generateExternalAdapter(context.autoValueClass())) {
-      jsonAdapterBuilder.addOriginatingElement(context.autoValueClass());
-      generatedAnnotation.ifPresent(jsonAdapterBuilder::addAnnotation);
-      JavaFile javaFile = JavaFile.builder(context.packageName(), jsonAdapterBuilder.build())
-          .skipJavaLangImports(true)
-          .build();
-      try {
-        javaFile.writeTo(filer);
-      } catch (IOException e) {
-        context.processingEnvironment().getMessager()
-            .printMessage(Diagnostic.Kind.ERROR,
-                String.format(
-                    "Failed to write external JsonAdapter for element \"%s\" with reason \"%s\"",
-                    context.autoValueClass(),
-                    e.getMessage()));
+      List<TypeSpec.Builder> adapterBuilders = Lists.newArrayList(jsonAdapterBuilder);
+      adapterBuilders.addAll(specializedAdapterBuilders);
+      for (TypeSpec.Builder adapterBuilder : adapterBuilders) {
+        adapterBuilder.addOriginatingElement(context.autoValueClass());
+        generatedAnnotation.ifPresent(adapterBuilder::addAnnotation);
+        JavaFile javaFile = JavaFile.builder(context.packageName(), adapterBuilder.build())
+            .skipJavaLangImports(true)
+            .build();
+        try {
+          javaFile.writeTo(filer);
+        } catch (IOException e) {
+          context.processingEnvironment().getMessager()
+              .printMessage(Diagnostic.Kind.ERROR,
+                  String.format(
+                      "Failed to write external JsonAdapter for element \"%s\" with reason \"%s\"",
+                      context.autoValueClass(),
+                      e.getMessage()));
+        }
       }
       writeProguardFile.run();
       return null;
@@ -325,6 +565,9 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
           .superclass(superclass)
           .addType(jsonAdapter)
           .addMethod(generateConstructor(properties));
+      for (TypeSpec.Builder specializedAdapter : specializedAdapterBuilders) {
+        subclass.addType(specializedAdapter.addModifiers(STATIC).build());
+      }
 
       generatedAnnotation.ifPresent(subclass::addAnnotation);
 
@@ -346,13 +589,16 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
 
   private List<Property> readProperties(AutoValueExtension.Context context) {
     Map<String, ExecutableElement> properties = context.properties();
+    MoshiAdapterOptions options = adapterOptions(context);
+    boolean inlineTypes = options == null || options.inlineProperties();
     List<Property> values = new LinkedList<>();
     for (Map.Entry<String, ExecutableElement> entry : properties.entrySet()) {
       Property prop = Property.create(
           context.processingEnvironment().getMessager(),
           entry.getKey(),
           entry.getValue(),
-          context.propertyTypes().get(entry.getKey())
+          context.propertyTypes().get(entry.getKey()),
+          inlineTypes
       );
       if (prop != null) {
         values.add(prop);
@@ -361,17 +607,20 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     return values;
   }
 
-  private ImmutableMap<Property, FieldSpec> createFields(List<Property> properties) {
+  private ImmutableMap<Property, FieldSpec> createFields(List<Property> properties,
+      boolean lazyAdapters, Set<Property> inlineCollections) {
     ImmutableMap.Builder<Property, FieldSpec> fields = ImmutableMap.builder();
 
     for (Property property : properties) {
-      if (property.isTransient()) {
+      if (property.isTransient() || property.isInlined()
+          || inlineCollections.contains(property)) {
         continue;
       }
       TypeName type = property.type.isPrimitive() ? property.type.box() : property.type;
       ParameterizedTypeName adp = ParameterizedTypeName.get(ADAPTER_CLASS_NAME, type);
-      FieldSpec.Builder builder
-          = FieldSpec.builder(adp, property.humanName + "Adapter", PRIVATE, FINAL);
+      FieldSpec.Builder builder = lazyAdapters
+          ? FieldSpec.builder(adp, property.humanName + "Adapter", PRIVATE, VOLATILE)
+          : FieldSpec.builder(adp, property.humanName + "Adapter", PRIVATE, FINAL);
 
       // Bolt qualifier annotations onto the adapter field they're used for. We'll look these up
       // at runtime.
@@ -417,16 +666,32 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       ClassName className,
       ClassName autoValueClassName,
       TypeVariableName[] genericTypeNames,
+      ImmutableMap<TypeVariableName, TypeName> typeArguments,
       List<Property> properties,
       Context context,
       String adapterClassName
   ) {
 
-    final TypeName autoValueTypeName = genericTypeNames != null && genericTypeNames.length > 0
-            ? ParameterizedTypeName.get(autoValueClassName, genericTypeNames)
-            : autoValueClassName;
+    final TypeName autoValueTypeName;
+    if (genericTypeNames != null && genericTypeNames.length > 0) {
+      autoValueTypeName = ParameterizedTypeName.get(autoValueClassName, genericTypeNames);
+    } else if (!typeArguments.isEmpty()) {
+      // Specialized adapter of a declared instantiation
+      autoValueTypeName = ParameterizedTypeName.get(autoValueClassName,
+          typeArguments.values().toArray(new TypeName[0]));
+    } else {
+      autoValueTypeName = autoValueClassName;
+    }
 
-    ImmutableMap<Property, FieldSpec> adapters = createFields(properties);
+    MoshiAdapterOptions options = adapterOptions(context);
+    boolean lazyAdapters = options != null && options.lazyAdapters();
+    boolean linkNestedAdapters = options != null && options.linkNestedAdapters() && !lazyAdapters;
+    ImmutableMap<Property, InlineCollection> collections = options != null
+        && options.inlineCollections()
+        ? inlineCollections(properties, lazyAdapters, options.inlineProperties())
+        : ImmutableMap.of();
+    ImmutableMap<Property, FieldSpec> adapters = createFields(properties, lazyAdapters,
+        collections.keySet());
 
     ParameterSpec moshiInstance = ParameterSpec.builder(Moshi.class, "moshi").build();
     ParameterSpec typesArray = null;
@@ -440,11 +705,60 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       constructor.addParameter(typesArray);
     }
 
-    List<String> names = Lists.newArrayListWithCapacity(adapters.size());
-    for (Map.Entry<Property, FieldSpec> entry : adapters.entrySet()) {
-      Property prop = entry.getKey();
-      FieldSpec moshiField = entry.getValue();
+    // Parameterized property types are resolved once per type arguments, and then cached
+    List<CodeBlock> resolvedTypes = new ArrayList<>();
+    FieldSpec typeCache = null;
+    MethodSpec resolveTypes = null;
+    String resolved = null;
+    if (typesArray != null && properties.stream()
+        .anyMatch(p -> adapters.containsKey(p) && p.type instanceof ParameterizedTypeName)) {
+      typeCache = FieldSpec.builder(ResolvedTypeCache.class, "RESOLVED_TYPES",
+          PRIVATE, STATIC, FINAL)
+          .initializer("new $T($L)", ResolvedTypeCache.class, RESOLVED_TYPE_CACHE_SIZE)
+          .build();
+      resolveTypes = MethodSpec.methodBuilder("resolveTypes")
+          .addModifiers(PRIVATE, STATIC)
+          .returns(Type[].class)
+          .addParameter(typesArray)
+          .build();
+      resolved = lazyAdapters ? "resolvedTypes" : "resolved";
+      constructor.addStatement("$T $N = $N.get($N)", Type[].class, resolved, typeCache, typesArray)
+          .beginControlFlow("if ($N == null)", resolved)
+          .addStatement("$N = $N.put($N, $N($N))", resolved, typeCache, typesArray, resolveTypes,
+              typesArray)
+          .endControlFlow();
+    }
+
+    // Lazy adapters keep the constructor arguments around to resolve delegates on first use
+    List<FieldSpec> lookupFields = new ArrayList<>();
+    List<MethodSpec> lazyAccessors = new ArrayList<>();
+    ImmutableMap.Builder<Property, CodeBlock> adapterAccessors = ImmutableMap.builder();
+    List<FieldSpec> linkedFields = new ArrayList<>();
+    ImmutableMap.Builder<Property, CodeBlock> linkedAccessors = ImmutableMap.builder();
+    if (lazyAdapters && !adapters.isEmpty()) {
+      lookupFields.add(FieldSpec.builder(Moshi.class, moshiInstance.name, PRIVATE, FINAL).build());
+      constructor.addStatement("this.$N = $N", moshiInstance, moshiInstance);
+      if (typesArray != null) {
+        lookupFields.add(FieldSpec.builder(Type[].class, typesArray.name, PRIVATE, FINAL).build());
+        constructor.addStatement("this.$N = $N", typesArray, typesArray);
+      }
+      if (resolved != null) {
+        lookupFields.add(FieldSpec.builder(Type[].class, resolved, PRIVATE, FINAL).build());
+        constructor.addStatement("this.$N = $N", resolved, resolved);
+      }
+    }
+
+    List<String> names = Lists.newArrayListWithCapacity(properties.size());
+    for (Property prop : properties) {
+      if (prop.isTransient()) {
+        continue;
+      }
       names.add(prop.serializedName());
+      FieldSpec moshiField = adapters.get(prop);
+      if (moshiField == null) {
+        // Inlined property, read and written without a delegate adapter
+        continue;
+      }
 
       CodeBlock possibleQualifierLookup = prop.hasJsonQualifiers
           ? CodeBlock.of(", $T.getFieldJsonQualifierAnnotations(getClass(), $S)", Types.class, moshiField.name)
@@ -453,30 +767,28 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       // if the property is @Nullable, we append a .nullSafe() to the adapter. If it's not, we'll
       // add a nonNull() check.
       String nullabilityMethod = prop.nullable() ? ".nullSafe()" : ".nonNull()";
+      CodeBlock lookup;
       if (genericTypeNames != null && prop.type instanceof ParameterizedTypeName) {
         // Property is a parameterized type that may or may not use generics (like "List<T>" or
         // "List<String>"
         ParameterizedTypeName typeName = ((ParameterizedTypeName) prop.type);
-        CodeBlock adapterTargetType = makeType(typeName, typesArray, genericTypeNames);
-        constructor.addStatement("this.$N = $N.<$T>adapter($L$L)$L",
-                moshiField,
+        resolvedTypes.add(makeType(typeName, typesArray, genericTypeNames));
+        lookup = CodeBlock.of("$N.<$T>adapter($N[$L]$L)",
                 moshiInstance,
                 typeName.box(),
-                adapterTargetType,
-                possibleQualifierLookup,
-                nullabilityMethod);
+                resolved,
+                resolvedTypes.size() - 1,
+                possibleQualifierLookup);
       } else if (genericTypeNames != null
           && getTypeIndexInArray(genericTypeNames, prop.type) >= 0) {
         // Property is a simple generic type (like "T"). Resolve the type at runtime through the
         // types array passed through the constructor
-        constructor.addStatement("this.$N = $N.<$T>adapter($N[$L]$L)$L",
-            moshiField,
+        lookup = CodeBlock.of("$N.<$T>adapter($N[$L]$L)",
             moshiInstance,
             prop.type.box(),
             typesArray,
             getTypeIndexInArray(genericTypeNames, prop.type),
-            possibleQualifierLookup,
-            nullabilityMethod);
+            possibleQualifierLookup);
       } else {
         // Normal property
         boolean specifyGenerics = prop.type instanceof ParameterizedTypeName
@@ -484,14 +796,85 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
         CodeBlock possibleGenerics = specifyGenerics
             ? CodeBlock.of("<$T>", prop.type.box())
             : CodeBlock.of("");
-        constructor.addStatement("this.$N = $N.$Ladapter($L$L)$L",
-            moshiField,
+        lookup = CodeBlock.of("$N.$Ladapter($L$L)",
             moshiInstance,
             possibleGenerics,
             makeType(prop.type, typesArray, genericTypeNames),
-            possibleQualifierLookup,
-            nullabilityMethod);
+            possibleQualifierLookup);
+      }
+
+      ClassName linkedAdapter = linkNestedAdapters ? linkedAdapterName(prop, context) : null;
+      if (linkedAdapter != null) {
+        // Linked only if Moshi returned the generated adapter, rather than one registered for
+        // the type. The wrapped delegate still handles nulls and any other adapter.
+        FieldSpec linkedField = FieldSpec.builder(linkedAdapter,
+            prop.humanName + "LinkedAdapter", PRIVATE, FINAL).build();
+        constructor.addStatement("$T $N = $L", moshiField.type, moshiField, lookup)
+            .addStatement("this.$N = $N instanceof $T ? ($T) $N : null", linkedField,
+                moshiField, linkedAdapter, linkedAdapter, moshiField);
+        linkedFields.add(linkedField);
+        linkedAccessors.put(prop, CodeBlock.of("this.$N", linkedField));
+        lookup = CodeBlock.of("$N", moshiField);
+      }
+      lookup = CodeBlock.of("$L$L", lookup, nullabilityMethod);
+
+      if (lazyAdapters) {
+        // Racy single-check, delegates are idempotent so a duplicate lookup is harmless
+        MethodSpec accessor = MethodSpec.methodBuilder(moshiField.name)
+            .addModifiers(PRIVATE)
+            .returns(moshiField.type)
+            .addStatement("$T adapter = this.$N", moshiField.type, moshiField)
+            .beginControlFlow("if (adapter == null)")
+            .addStatement("adapter = $L", lookup)
+            .addStatement("this.$N = adapter", moshiField)
+            .endControlFlow()
+            .addStatement("return adapter")
+            .build();
+        lazyAccessors.add(accessor);
+        adapterAccessors.put(prop, CodeBlock.of("$N()", accessor));
+      } else {
+        constructor.addStatement("this.$N = $L", moshiField, lookup);
+        adapterAccessors.put(prop, CodeBlock.of("this.$N", moshiField));
+      }
+    }
+
+    // Collections read and written with a loop, elements inline or through an element adapter
+    List<FieldSpec> collectionFields = new ArrayList<>();
+    List<MethodSpec> collectionMethods = new ArrayList<>();
+    ImmutableMap.Builder<Property, MethodSpec> collectionReaders = ImmutableMap.builder();
+    ImmutableMap.Builder<Property, MethodSpec> collectionWriters = ImmutableMap.builder();
+    for (Map.Entry<Property, InlineCollection> entry : collections.entrySet()) {
+      Property prop = entry.getKey();
+      InlineCollection collection = entry.getValue();
+      CodeBlock elementAdapter = null;
+      if (!collection.inlineElements) {
+        FieldSpec elementField = FieldSpec.builder(
+            ParameterizedTypeName.get(ADAPTER_CLASS_NAME, collection.element),
+            prop.humanName + "ElementAdapter", PRIVATE, FINAL).build();
+        collectionFields.add(elementField);
+        // Not wrapped, so null elements are handled like Moshi's collection adapters do
+        constructor.addStatement("this.$N = $N.adapter($T.class)", elementField,
+            moshiInstance, collection.element);
+        elementAdapter = CodeBlock.of("this.$N", elementField);
       }
+      MethodSpec reader = createCollectionReadMethod(prop, collection, elementAdapter);
+      MethodSpec writer = createCollectionWriteMethod(prop, collection, elementAdapter);
+      collectionMethods.add(reader);
+      collectionMethods.add(writer);
+      collectionReaders.put(prop, reader);
+      collectionWriters.put(prop, writer);
+    }
+
+    MethodSpec readMethod = createReadMethod(className, autoValueClassName, autoValueTypeName,
+        typeArguments, properties, adapterAccessors.build(), linkedAccessors.build(),
+        collectionReaders.build(), names, context);
+    MethodSpec writeMethod = createWriteMethod(autoValueTypeName, properties,
+        adapterAccessors.build(), linkedAccessors.build(), collectionWriters.build());
+    List<MethodSpec> readMethods = ImmutableList.of(readMethod);
+    List<MethodSpec> writeMethods = ImmutableList.of(writeMethod);
+    if (options != null && options.reportMetrics()) {
+      readMethods = meter(readMethod, "read", "onRead", autoValueClassName, true);
+      writeMethods = meter(writeMethod, "write", "onWritten", autoValueClassName, false);
     }
 
     ClassName jsonAdapterClassName = ClassName.get(JsonAdapter.class);
@@ -499,11 +882,15 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     TypeSpec.Builder classBuilder = TypeSpec.classBuilder(adapterClassName)
         .addModifiers(PUBLIC, FINAL)
         .superclass(superClass)
+        .addFields(lookupFields)
         .addFields(adapters.values())
+        .addFields(linkedFields)
+        .addFields(collectionFields)
         .addMethod(constructor.build())
-        .addMethod(createReadMethod(className, autoValueClassName, autoValueTypeName, properties,
-                adapters, names, context))
-        .addMethod(createWriteMethod(autoValueTypeName, adapters))
+        .addMethods(lazyAccessors)
+        .addMethods(readMethods)
+        .addMethods(writeMethods)
+        .addMethods(collectionMethods)
         .addMethod(MethodSpec.methodBuilder("toString")
             .addAnnotation(Override.class)
             .addModifiers(PUBLIC)
@@ -524,8 +911,27 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
             .initializer(CodeBlock.of("new $T $L", stringArray, initializer))
             .build())
         .addField(FieldSpec.builder(optionsCN, "OPTIONS", PRIVATE, STATIC, FINAL)
-            .initializer(CodeBlock.of("$T.of(NAMES)", optionsCN))
+            .initializer(CodeBlock.of("$T.of(NAMES)", JsonReaderOptions.class))
             .build());
+    if (predictsFieldOrder(options, names)) {
+      // One single name Options per property, to try the expected next name on its own first
+      List<CodeBlock> nameOptions = new ArrayList<>(names.size());
+      for (int i = 0; i < names.size(); i++) {
+        nameOptions.add(CodeBlock.of("$T.of(NAMES[$L])", JsonReaderOptions.class, i));
+      }
+      ArrayTypeName optionsArray = ArrayTypeName.of(optionsCN);
+      classBuilder.addField(FieldSpec.builder(optionsArray, "NAME_OPTIONS", PRIVATE, STATIC, FINAL)
+          .initializer("new $T {$L}", optionsArray, CodeBlock.join(nameOptions, ", "))
+          .build());
+    }
+
+    if (typeCache != null) {
+      classBuilder.addField(typeCache)
+          .addMethod(resolveTypes.toBuilder()
+              .addStatement("return new $T {$L}", Type[].class,
+                  CodeBlock.join(resolvedTypes, ", "))
+              .build());
+    }
 
     if (genericTypeNames != null) {
       classBuilder.addTypeVariables(Arrays.asList(genericTypeNames));
@@ -534,6 +940,71 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     return classBuilder;
   }
 
+  /**
+   * Returns the type arguments of {@code arguments} by the type parameter of the AutoValue class
+   * they stand for, or null after reporting an error if they aren't a valid instantiation of it.
+   */
+  @Nullable
+  private static ImmutableMap<TypeVariableName, TypeName> specializationArguments(Context context,
+      List<TypeMirror> arguments) {
+    TypeElement type = context.autoValueClass();
+    Messager messager = context.processingEnvironment().getMessager();
+    javax.lang.model.util.Types typeUtils = context.processingEnvironment().getTypeUtils();
+    List<? extends TypeParameterElement> typeParameters = type.getTypeParameters();
+    if (arguments.size() != typeParameters.size()) {
+      messager.printMessage(Diagnostic.Kind.ERROR,
+          String.format("@MoshiSpecialization needs %d type arguments for %s, found %d.",
+              typeParameters.size(), type, arguments.size()), type);
+      return null;
+    }
+    ImmutableMap.Builder<TypeVariableName, TypeName> typeArguments = ImmutableMap.builder();
+    for (int i = 0; i < arguments.size(); i++) {
+      TypeMirror argument = arguments.get(i);
+      TypeParameterElement typeParameter = typeParameters.get(i);
+      if (!isSpecializable(argument)) {
+        messager.printMessage(Diagnostic.Kind.ERROR,
+            String.format("@MoshiSpecialization type argument %s must be a class without type "
+                + "parameters.", argument), type);
+        return null;
+      }
+      for (TypeMirror bound : typeParameter.getBounds()) {
+        if (!typeUtils.isAssignable(argument, typeUtils.erasure(bound))) {
+          messager.printMessage(Diagnostic.Kind.ERROR,
+              String.format("@MoshiSpecialization type argument %s is not within the bounds of "
+                  + "%s.", argument, typeParameter), type);
+          return null;
+        }
+      }
+      typeArguments.put(TypeVariableName.get(typeParameter), TypeName.get(argument));
+    }
+    return typeArguments.build();
+  }
+
+  /** Returns {@code type} with each type variable in {@code typeArguments} replaced. */
+  private static TypeName substitute(TypeName type,
+      Map<TypeVariableName, TypeName> typeArguments) {
+    if (typeArguments.isEmpty()) {
+      return type;
+    } else if (type instanceof TypeVariableName) {
+      return typeArguments.getOrDefault(type, type);
+    } else if (type instanceof ParameterizedTypeName) {
+      ParameterizedTypeName parameterized = (ParameterizedTypeName) type;
+      TypeName[] arguments = parameterized.typeArguments.stream()
+          .map(argument -> substitute(argument, typeArguments))
+          .toArray(TypeName[]::new);
+      return ParameterizedTypeName.get(parameterized.rawType, arguments);
+    } else if (type instanceof ArrayTypeName) {
+      return ArrayTypeName.of(substitute(((ArrayTypeName) type).componentType, typeArguments));
+    } else if (type instanceof WildcardTypeName) {
+      WildcardTypeName wildcard = (WildcardTypeName) type;
+      return wildcard.lowerBounds.isEmpty()
+          ? WildcardTypeName.subtypeOf(substitute(wildcard.upperBounds.get(0), typeArguments))
+          : WildcardTypeName.supertypeOf(substitute(wildcard.lowerBounds.get(0), typeArguments));
+    } else {
+      return type;
+    }
+  }
+
   private int getTypeIndexInArray(TypeVariableName[] array, TypeName typeName) {
     for (int i = 0; i < array.length ; i++) {
       if (typeName.equals(array[i])) {
@@ -543,8 +1014,63 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     return -1;
   }
 
-  private MethodSpec createWriteMethod(TypeName autoValueTypeName,
-      ImmutableMap<Property, FieldSpec> adapters) {
+  /**
+   * Moves the body of {@code method} to a private {@code delegateName} method, and returns it
+   * along with a replacement for {@code method} that times each call to it and reports the time to
+   * {@code callback} of the installed {@link AdapterMetrics}. If {@code passMetrics}, the
+   * delegate also receives the installed metrics, which its body refers to as
+   * {@link #METRICS_NAME}.
+   */
+  private static List<MethodSpec> meter(MethodSpec method, String delegateName, String callback,
+      ClassName autoValueClassName, boolean passMetrics) {
+    MethodSpec.Builder delegateBuilder = MethodSpec.methodBuilder(delegateName)
+        .addModifiers(PRIVATE)
+        .returns(method.returnType)
+        .addParameters(method.parameters);
+    if (passMetrics) {
+      delegateBuilder.addParameter(AdapterMetrics.class, METRICS_NAME);
+    }
+    MethodSpec delegate = delegateBuilder
+        .addExceptions(method.exceptions)
+        .addCode(method.code)
+        .build();
+    CodeBlock call = CodeBlock.of("$N($L)", delegate, delegate.parameters.stream()
+        .map(p -> CodeBlock.of("$N", p))
+        .collect(CodeBlock.joining(", ")));
+    boolean returnsValue = !method.returnType.equals(TypeName.VOID);
+
+    MethodSpec.Builder metered = MethodSpec.methodBuilder(method.name)
+        .addAnnotations(method.annotations)
+        .addModifiers(method.modifiers)
+        .returns(method.returnType)
+        .addParameters(method.parameters)
+        .addExceptions(method.exceptions)
+        .addStatement("$T $N = $T.get()", AdapterMetrics.class, METRICS_NAME, AdapterMetrics.class)
+        .beginControlFlow("if ($N == $T.NONE)", METRICS_NAME, AdapterMetrics.class);
+    if (returnsValue) {
+      metered.addStatement("return $L", call);
+    } else {
+      metered.addStatement("$L", call)
+          .addStatement("return");
+    }
+    metered.endControlFlow()
+        .addStatement("long start = $T.nanoTime()", System.class);
+    if (returnsValue) {
+      metered.addStatement("$T result = $L", method.returnType, call);
+    } else {
+      metered.addStatement("$L", call);
+    }
+    metered.addStatement("$N.$L($T.class, $T.nanoTime() - start)", METRICS_NAME, callback,
+        autoValueClassName, System.class);
+    if (returnsValue) {
+      metered.addStatement("return result");
+    }
+    return ImmutableList.of(metered.build(), delegate);
+  }
+
+  private MethodSpec createWriteMethod(TypeName autoValueTypeName, List<Property> properties,
+      ImmutableMap<Property, CodeBlock> adapters, ImmutableMap<Property, CodeBlock> linkedAdapters,
+      ImmutableMap<Property, MethodSpec> collectionWriters) {
     String writerName = "writer";
     String valueName = "value";
     ParameterSpec writer = ParameterSpec.builder(JsonWriter.class, writerName).build();
@@ -558,15 +1084,19 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
 
     writeMethod.addStatement("$N.beginObject()", writer);
 
+    // Names are written as literals through JsonWriter.name(). JsonWriter has no public way to
+    // emit pre-encoded name bytes (valueSink() only covers values), and writing them to the
+    // underlying sink directly would bypass its nesting, indent and serializeNulls handling.
     NameAllocator nameAllocator = new NameAllocator();
     nameAllocator.newName(writerName);
     nameAllocator.newName(valueName);
-    for (Map.Entry<Property, FieldSpec> entry : adapters.entrySet()) {
-      Property prop = entry.getKey();
+    for (Property prop : properties) {
       if (prop.isTransient()) {
         continue;
       }
-      FieldSpec field = entry.getValue();
+      CodeBlock adapter = adapters.get(prop);
+      CodeBlock linkedAdapter = linkedAdapters.get(prop);
+      MethodSpec collectionWriter = collectionWriters.get(prop);
       nameAllocator.newName(prop.humanName, prop);
 
       if (prop.nullable()) {
@@ -574,12 +1104,13 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
         writeMethod.addStatement("$T $N = $N.$N()", prop.type, name, value, prop.methodName);
         writeMethod.beginControlFlow("if ($N != null)", name);
         writeMethod.addStatement("$N.name($S)", writer, prop.serializedName());
-        writeMethod.addStatement("this.$N.toJson($N, $N)", field, writer, name);
+        addValueWriting(writeMethod, prop, adapter, linkedAdapter, collectionWriter, writer,
+            CodeBlock.of("$N", name));
         writeMethod.endControlFlow();
       } else {
         writeMethod.addStatement("$N.name($S)", writer, prop.serializedName());
-        writeMethod.addStatement("this.$N.toJson($N, $N.$N())", field, writer, value,
-            prop.methodName);
+        addValueWriting(writeMethod, prop, adapter, linkedAdapter, collectionWriter, writer,
+            CodeBlock.of("$N.$N()", value, prop.methodName));
       }
     }
     writeMethod.addStatement("$N.endObject()", writer);
@@ -587,12 +1118,52 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     return writeMethod.build();
   }
 
+  private static void addValueWriting(MethodSpec.Builder writeMethod, Property prop,
+      @Nullable CodeBlock adapter, @Nullable CodeBlock linkedAdapter,
+      @Nullable MethodSpec collectionWriter, ParameterSpec writer, CodeBlock valueExpression) {
+    if (prop.isInlined()) {
+      writeMethod.addStatement("$L", writeInlineValue(prop.type, writer, valueExpression));
+    } else if (collectionWriter != null) {
+      writeMethod.addStatement("$N($N, $L)", collectionWriter, writer, valueExpression);
+    } else if (linkedAdapter != null) {
+      // Values written here are never null, which is all the delegate's wrapper checks
+      writeMethod.beginControlFlow("if ($L != null)", linkedAdapter)
+          .addStatement("$L.toJson($N, $L)", linkedAdapter, writer, valueExpression)
+          .nextControlFlow("else")
+          .addStatement("$L.toJson($N, $L)", adapter, writer, valueExpression)
+          .endControlFlow();
+    } else {
+      writeMethod.addStatement("$L.toJson($N, $L)", adapter, writer, valueExpression);
+    }
+  }
+
+  private static CodeBlock writeInlineValue(TypeName type, ParameterSpec writer,
+      CodeBlock valueExpression) {
+    if (type.isBoxedPrimitive()) {
+      // Unbox explicitly, boxed numbers would otherwise pick the slower value(Number) overload
+      TypeName primitive = type.unbox();
+      String unbox = primitive == TypeName.BOOLEAN ? "booleanValue"
+          : primitive == TypeName.DOUBLE ? "doubleValue" : "longValue";
+      return CodeBlock.of("$N.value($L.$L())", writer, valueExpression, unbox);
+    }
+    // JsonWriter has overloads for each of the inlined types, ints widen to long
+    return CodeBlock.of("$N.value($L)", writer, valueExpression);
+  }
+
   private MethodSpec createReadMethod(ClassName className, ClassName autoValueClassName, TypeName autoValueTypeName,
-                                      List<Property> properties, ImmutableMap<Property, FieldSpec> adapters,
+                                      Map<TypeVariableName, TypeName> typeArguments,
+                                      List<Property> properties, ImmutableMap<Property, CodeBlock> adapters,
+                                      ImmutableMap<Property, CodeBlock> linkedAdapters,
+                                      ImmutableMap<Property, MethodSpec> collectionReaders,
                                       List<String> names, Context context) {
     NameAllocator nameAllocator = new NameAllocator();
     ParameterSpec reader = ParameterSpec.builder(JsonReader.class, nameAllocator.newName("reader"))
         .build();
+    MoshiAdapterOptions options = adapterOptions(context);
+    // Added by meter() along with the metered fromJson, which passes the metrics it read
+    String metrics = options != null && options.reportMetrics()
+        ? nameAllocator.newName(METRICS_NAME)
+        : null;
     MethodSpec.Builder readMethod = MethodSpec.methodBuilder("fromJson")
         .addAnnotation(Override.class)
         .addModifiers(PUBLIC)
@@ -647,40 +1218,29 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     // Will be absent if not using AutoValue builder
     Optional<FieldSpec> builderField = Optional.ofNullable(builderContext)
             .map(ctx -> FieldSpec
-                    .builder(TypeName.get(ctx.builderType().asType()), "builder")
+                    .builder(substitute(TypeName.get(ctx.builderType().asType()), typeArguments),
+                        "builder")
                     .build());
 
-    if (builderField.isPresent()) {
-      Set<ExecutableElement> builderMethods = builderContext.builderMethods();
-
-      if (builderMethods.size() == 0) {
-        // If no builder method defined, instantiate directly.
-        readMethod.addStatement("$T $N = new $T.$L()", builderField.get().type, builderField.get(),
-                className, builderContext.builderType().getSimpleName());
-      } else {
-        ExecutableElement builderMethod;
-        if (builderMethods.size() == 1) {
-          // If there is only 1, use it.
-          builderMethod = builderMethods.stream().findFirst().get();
-        } else {
-          // Otherwise, find the only builder method that is annotated.
-          Set<ExecutableElement> annotatedMethods = builderMethods.stream()
-                  .filter(e -> MoreElements.isAnnotationPresent(e, AutoValueMoshiBuilder.class))
-                  .collect(Collectors.toSet());
-
-          if (annotatedMethods.size() == 1) {
-            builderMethod = annotatedMethods.stream().findFirst().get();
-          } else {
-            throw new IllegalStateException();
-          }
-        }
+    // Reads into locals and only falls back to the builder if a property is missing
+    boolean bypassBuilder = builderContext != null
+        && options != null
+        && options.bypassBuilder()
+        && canBypassBuilder(properties, typeArguments, builderContext, context);
 
-        readMethod.addStatement("$T $N = $T.$N()", builderField.get().type, builderField.get(),
-                autoValueClassName, builderMethod.getSimpleName());
-      }
+    if (builderField.isPresent() && !bypassBuilder) {
+      addBuilderCreation(readMethod, builderField.get(), builderContext, className,
+          autoValueClassName);
     } else {
+      if (bypassBuilder) {
+        // Keep the builder's name free for the fallback
+        nameAllocator.newName(builderField.get().name);
+      }
       // add the properties
-      for (Property prop : adapters.keySet()) {
+      for (Property prop : properties) {
+        if (prop.isTransient()) {
+          continue;
+        }
         FieldSpec field = FieldSpec.builder(prop.type, nameAllocator.newName(prop.humanName)).build();
         fields.put(prop, field);
 
@@ -688,10 +1248,53 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       }
     }
 
+    String present = null;
+    if (bypassBuilder) {
+      present = nameAllocator.newName("present");
+      readMethod.addStatement("long $N = 0L", present);
+    }
+
+    String unknownFields = null;
+    if (options != null && (options.reportUnknownFields() || options.reportMetrics())) {
+      unknownFields = nameAllocator.newName("unknownFields");
+      readMethod.addStatement("int $N = 0", unknownFields);
+    }
+
+    String nulls = null;
+    if (options != null && options.reportMetrics()) {
+      nulls = nameAllocator.newName("nulls");
+      readMethod.addStatement("int $N = 0", nulls);
+    }
+
+    String expectedIndex = null;
+    String index = null;
+    if (predictsFieldOrder(options, names)) {
+      expectedIndex = nameAllocator.newName("expectedIndex");
+      index = nameAllocator.newName("index");
+      readMethod.addStatement("int $N = 0", expectedIndex);
+    }
+
     readMethod.beginControlFlow("while ($N.hasNext())", reader);
 
-    // Leverage the select API for better perf
-    readMethod.beginControlFlow("switch ($N.selectName(OPTIONS))", reader);
+    if (expectedIndex != null) {
+      // Names usually arrive in property order, so try the one following the last match on its
+      // own before selecting from all of them. A miss buffers the name as a String, which the
+      // full select then compares against each name rather than matching the encoded bytes.
+      readMethod.addStatement("int $N", index);
+      readMethod.beginControlFlow("if ($N < NAMES.length && $N.selectName(NAME_OPTIONS[$N]) == 0)",
+          expectedIndex, reader, expectedIndex);
+      readMethod.addStatement("$N = $N", index, expectedIndex);
+      readMethod.nextControlFlow("else");
+      readMethod.addStatement("$N = $N.selectName(OPTIONS)", index, reader);
+      readMethod.endControlFlow();
+      readMethod.beginControlFlow("if ($N != -1)", index);
+      readMethod.addStatement("$N = $N + 1", expectedIndex, index);
+      readMethod.endControlFlow();
+      readMethod.beginControlFlow("switch ($N)", index);
+    } else {
+      // Leverage the select API for better perf
+      readMethod.beginControlFlow("switch ($N.selectName(OPTIONS))", reader);
+    }
     for (Property property : properties) {
       if (property.isTransient()) {
         constructorCall.add(CodeBlock.of("null"));
@@ -699,14 +1302,25 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
       }
       CodeBlock.Builder block = CodeBlock.builder();
 
-      FieldSpec adapter = adapters.get(property);
+      CodeBlock adapter = adapters.get(property);
       readMethod.beginControlFlow("case $L:", names.indexOf(property.serializedName()));
-      if (builderField.isPresent()) {
-        addBuilderFieldSetting(block, property, adapter, reader, builderField.get(), builderContext);
+      if (nulls != null) {
+        readMethod.beginControlFlow("if ($N != $T.NONE && $N.peek() == $T.NULL)", metrics,
+            AdapterMetrics.class, reader, JsonReader.Token.class);
+        readMethod.addStatement("$N++", nulls);
+        readMethod.endControlFlow();
+      }
+      if (builderField.isPresent() && !bypassBuilder) {
+        addBuilderFieldSetting(block, property, adapter, linkedAdapters.get(property),
+            collectionReaders.get(property), reader, builderField.get(), builderContext);
       } else {
         FieldSpec localField = fields.get(property);
         constructorCall.add(CodeBlock.of("$N", localField));
-        addFieldSetting(block, localField, adapter, reader);
+        addFieldSetting(block, property, localField, adapter, linkedAdapters.get(property),
+            collectionReaders.get(property), reader);
+        if (present != null) {
+          block.addStatement("$N |= $L", present, presenceBit(constructorCall.size() - 1));
+        }
       }
       readMethod.addCode(block.build());
       readMethod.addStatement("break");
@@ -718,13 +1332,49 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     readMethod.addCode("// Unknown name, skip it\n");
     readMethod.addStatement("$N.skipName()", reader);
     readMethod.addStatement("$N.skipValue()", reader);
+    if (unknownFields != null) {
+      readMethod.addStatement("$N++", unknownFields);
+    }
     readMethod.endControlFlow();
 
     readMethod.endControlFlow(); // switch
     readMethod.endControlFlow(); // while
 
     readMethod.addStatement("$N.endObject()", reader);
-    if (builderField.isPresent()) {
+    // Metered adapters report to the metrics passed in rather than reading them again
+    CodeBlock installedMetrics = nulls != null
+        ? CodeBlock.of("$N", metrics)
+        : CodeBlock.of("$T.get()", AdapterMetrics.class);
+    if (unknownFields != null) {
+      readMethod.beginControlFlow("if ($N > 0)", unknownFields);
+      readMethod.addStatement("$L.onUnknownFieldsSkipped($T.class, $N)",
+          installedMetrics, autoValueClassName, unknownFields);
+      readMethod.endControlFlow();
+    }
+    if (nulls != null) {
+      readMethod.beginControlFlow("if ($N > 0)", nulls);
+      readMethod.addStatement("$L.onNullsRead($T.class, $N)",
+          installedMetrics, autoValueClassName, nulls);
+      readMethod.endControlFlow();
+    }
+    if (bypassBuilder) {
+      // With every property read, the builder's defaults and missing property checks don't apply
+      long allPresent = properties.size() == Long.SIZE ? -1L : (1L << properties.size()) - 1;
+      readMethod.beginControlFlow("if ($N == $L)", present, longLiteral(allPresent));
+      ClassName constructorName = ClassName.bestGuess(context.finalAutoValueClassName());
+      readMethod.addStatement("return new $T($L)", constructorName,
+          CodeBlock.join(constructorCall, ", "));
+      readMethod.endControlFlow();
+
+      FieldSpec builder = builderField.get();
+      addBuilderCreation(readMethod, builder, builderContext, className, autoValueClassName);
+      for (int i = 0; i < properties.size(); i++) {
+        Property prop = properties.get(i);
+        readMethod.addStatement("if (($N & $L) != 0) $N.$N($N)", present, presenceBit(i), builder,
+            findSetter(prop, builderContext), fields.get(prop));
+      }
+      readMethod.addStatement("return $N.$L", builder, builderContext.buildMethod().get());
+    } else if (builderField.isPresent()) {
       readMethod.addStatement("return $N.$L", builderField.get(), builderContext.buildMethod().get());
     } else {
       CodeBlock params = CodeBlock.join(constructorCall, ", ");
@@ -734,27 +1384,362 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     return readMethod.build();
   }
 
-  private void addFieldSetting(CodeBlock.Builder block, FieldSpec field, FieldSpec adapter, ParameterSpec reader) {
-    block.addStatement("$N = this.$N.fromJson($N)", field, adapter, reader);
+  private static void addBuilderCreation(MethodSpec.Builder readMethod, FieldSpec builderField,
+      BuilderContext builderContext, ClassName className, ClassName autoValueClassName) {
+    Set<ExecutableElement> builderMethods = builderContext.builderMethods();
+
+    if (builderMethods.size() == 0) {
+      // If no builder method defined, instantiate directly.
+      readMethod.addStatement("$T $N = new $T.$L()", builderField.type, builderField,
+              className, builderContext.builderType().getSimpleName());
+    } else {
+      ExecutableElement builderMethod;
+      if (builderMethods.size() == 1) {
+        // If there is only 1, use it.
+        builderMethod = builderMethods.stream().findFirst().get();
+      } else {
+        // Otherwise, find the only builder method that is annotated.
+        Set<ExecutableElement> annotatedMethods = builderMethods.stream()
+                .filter(e -> MoreElements.isAnnotationPresent(e, AutoValueMoshiBuilder.class))
+                .collect(Collectors.toSet());
+
+        if (annotatedMethods.size() == 1) {
+          builderMethod = annotatedMethods.stream().findFirst().get();
+        } else {
+          throw new IllegalStateException();
+        }
+      }
+
+      readMethod.addStatement("$T $N = $T.$N()", builderField.type, builderField,
+              autoValueClassName, builderMethod.getSimpleName());
+    }
+  }
+
+  /**
+   * Returns true if the properties can be read into locals and passed to the AutoValue
+   * constructor, with each one having a setter to hand it to the builder instead when another is
+   * missing. Warns about the reason otherwise.
+   */
+  private static boolean canBypassBuilder(List<Property> properties,
+      Map<TypeVariableName, TypeName> typeArguments, BuilderContext builderContext,
+      Context context) {
+    String reason = null;
+    if (generateExternalAdapter(context.autoValueClass())) {
+      // AutoValue makes the constructor private when the class has a builder
+      reason = "external adapters can't reach the AutoValue constructor";
+    } else if (!builderContext.buildMethod().get().getModifiers().contains(ABSTRACT)) {
+      reason = "the build method isn't abstract";
+    } else if (properties.isEmpty() || properties.size() > Long.SIZE) {
+      reason = "it only supports 1 to " + Long.SIZE + " properties";
+    } else {
+      for (Property prop : properties) {
+        if (prop.isTransient()) {
+          reason = "transient property " + prop.humanName + " can't be read";
+        } else if (!prop.type.equals(substitute(prop.builderType, typeArguments))
+            || findSetter(prop, builderContext) == null) {
+          reason = "property " + prop.humanName + " has no builder setter of its type";
+        }
+        if (reason != null) {
+          break;
+        }
+      }
+    }
+    if (reason != null) {
+      context.processingEnvironment().getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "Ignoring @MoshiAdapterOptions(bypassBuilder = true) because " + reason + ".",
+          context.autoValueClass());
+      return false;
+    }
+    return true;
+  }
+
+  private static String presenceBit(int index) {
+    return longLiteral(1L << index);
+  }
+
+  private static String longLiteral(long value) {
+    return "0x" + Long.toHexString(value) + "L";
+  }
+
+  private static boolean predictsFieldOrder(@Nullable MoshiAdapterOptions options,
+      List<String> names) {
+    return options != null && options.predictFieldOrder() && !names.isEmpty();
+  }
+
+  /**
+   * Returns the name of the adapter generated for the type of {@code prop} to link to, or null if
+   * it is not a non-generic AutoValue class whose adapter is generated and visible from the
+   * adapter of {@code context}. Qualified properties are never linked.
+   */
+  @Nullable
+  private static ClassName linkedAdapterName(Property prop, Context context) {
+    if (prop.hasJsonQualifiers || !(prop.type instanceof ClassName)) {
+      return null;
+    }
+    TypeElement type = context.processingEnvironment().getElementUtils()
+        .getTypeElement(((ClassName) prop.type).canonicalName());
+    if (type == null
+        || !MoreElements.isAnnotationPresent(type, AutoValue.class)
+        || !type.getTypeParameters().isEmpty()) {
+      return null;
+    }
+    if (generateExternalAdapter(type)) {
+      return externalAdapterName(type);
+    }
+    // Nested adapters are only reachable through the package-private AutoValue class
+    ParameterizedTypeName jsonAdapterType = ParameterizedTypeName.get(ADAPTER_CLASS_NAME,
+        prop.type);
+    boolean hasAdapterMethod = ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+        .anyMatch(method -> method.getModifiers().contains(STATIC)
+            && !method.getModifiers().contains(PRIVATE)
+            && TypeName.get(method.getReturnType()).equals(jsonAdapterType));
+    if (!hasAdapterMethod
+        || !MoreElements.getPackage(type).getQualifiedName().contentEquals(context.packageName())) {
+      return null;
+    }
+    return generatedAdapterName(type);
+  }
+
+  /**
+   * Returns the List, Set and Map properties to read and write with a loop. Their elements, or the
+   * values of maps with String keys, must be inlined types or classes without type parameters,
+   * and only inlined types qualify with lazy adapters. Qualified properties never do. Elements
+   * are only inlined if {@code inlineTypes} is set.
+   */
+  private static ImmutableMap<Property, InlineCollection> inlineCollections(
+      List<Property> properties, boolean lazyAdapters, boolean inlineTypes) {
+    ImmutableMap.Builder<Property, InlineCollection> collections = ImmutableMap.builder();
+    for (Property prop : properties) {
+      if (prop.isTransient() || prop.hasJsonQualifiers
+          || !(prop.type instanceof ParameterizedTypeName)) {
+        continue;
+      }
+      ParameterizedTypeName type = (ParameterizedTypeName) prop.type;
+      ClassName immutableType = INLINE_COLLECTION_TYPES.get(type.rawType);
+      if (immutableType == null) {
+        continue;
+      }
+      boolean isMap = immutableType.equals(IMMUTABLE_MAP);
+      if (isMap && !type.typeArguments.get(0).equals(STRING_CLASS_NAME)) {
+        continue;
+      }
+      TypeName element = type.typeArguments.get(isMap ? 1 : 0);
+      boolean inlined = inlineTypes && INLINE_TYPES.contains(element);
+      if (!inlined && (!(element instanceof ClassName) || element.isAnnotated() || lazyAdapters)) {
+        continue;
+      }
+      collections.put(prop, new InlineCollection(type, immutableType, element, inlined));
+    }
+    return collections.build();
+  }
+
+  /**
+   * Returns a method reading the collection of {@code prop} and returning it as an unmodifiable
+   * view, or as its Guava type if it is declared as one. Elements are read inline or through the
+   * {@code elementAdapter} expression, and may be null like with Moshi's collection adapters,
+   * except in Guava collections, which reject them.
+   */
+  private static MethodSpec createCollectionReadMethod(Property prop, InlineCollection collection,
+      @Nullable CodeBlock elementAdapter) {
+    ParameterSpec reader = ParameterSpec.builder(JsonReader.class, "reader").build();
+    boolean immutable = collection.type.rawType.equals(collection.immutableType);
+    CodeBlock element;
+    if (elementAdapter != null) {
+      element = CodeBlock.of("$L.fromJson($N)", elementAdapter, reader);
+    } else if (immutable) {
+      element = readInlineValue(collection.element, reader);
+    } else {
+      element = CodeBlock.of("$N.peek() == $T.NULL ? $N.<$T>nextNull() : $L", reader,
+          JsonReader.Token.class, reader, collection.element,
+          readInlineValue(collection.element, reader));
+    }
+    // Checked before reading, while the path still points at the element
+    CodeBlock rejectNull = CodeBlock.builder()
+        .beginControlFlow("if ($N.peek() == $T.NULL)", reader, JsonReader.Token.class)
+        .addStatement("throw new $T($S + $N.getPath())", JsonDataException.class,
+            "Unexpected null element at path ", reader)
+        .endControlFlow()
+        .build();
+    MethodSpec.Builder method = MethodSpec.methodBuilder("read" + capitalize(prop.humanName))
+        .addModifiers(PRIVATE)
+        .returns(collection.type)
+        .addParameter(reader)
+        .addException(IOException.class);
+
+    String unmodifiable;
+    if (collection.isMap()) {
+      unmodifiable = "unmodifiableMap";
+      // Duplicate names are rejected like Moshi's MapJsonAdapter does
+      method.addStatement("$T values = new $T<>()",
+          ParameterizedTypeName.get(ClassName.get(Map.class), STRING_CLASS_NAME,
+              collection.element), LinkedHashMap.class)
+          .addStatement("$N.beginObject()", reader)
+          .beginControlFlow("while ($N.hasNext())", reader)
+          .addStatement("$T name = $N.nextName()", String.class, reader)
+          .addCode(immutable ? rejectNull : CodeBlock.of(""))
+          .addStatement("$T value = $L", collection.element, element)
+          .addStatement("$T replaced = values.put(name, value)", collection.element)
+          .beginControlFlow("if (replaced != null)")
+          .addStatement("throw new $T($S + name + $S + $N.getPath() + $S + replaced + $S + value)",
+              JsonDataException.class, "Map key '", "' has multiple values at path ", reader,
+              ": ", " and ")
+          .endControlFlow()
+          .endControlFlow()
+          .addStatement("$N.endObject()", reader);
+    } else {
+      unmodifiable = collection.isSet() ? "unmodifiableSet" : "unmodifiableList";
+      method.addStatement("$T values = new $T<>()", ParameterizedTypeName.get(
+          ClassName.get(collection.isSet() ? Set.class : List.class), collection.element),
+          collection.isSet() ? LinkedHashSet.class : ArrayList.class)
+          .addStatement("$N.beginArray()", reader)
+          .beginControlFlow("while ($N.hasNext())", reader)
+          .addCode(immutable ? rejectNull : CodeBlock.of(""))
+          .addStatement("values.add($L)", element)
+          .endControlFlow()
+          .addStatement("$N.endArray()", reader);
+    }
+    if (immutable) {
+      method.addStatement("return $T.copyOf(values)", collection.immutableType);
+    } else {
+      method.addStatement("return $T.$L(values)", Collections.class, unmodifiable);
+    }
+    return method.build();
+  }
+
+  /**
+   * Returns a method writing the collection of {@code prop}, its elements inline or through the
+   * {@code elementAdapter} expression. Null map keys are rejected like Moshi's MapJsonAdapter does.
+   */
+  private static MethodSpec createCollectionWriteMethod(Property prop,
+      InlineCollection collection, @Nullable CodeBlock elementAdapter) {
+    ParameterSpec writer = ParameterSpec.builder(JsonWriter.class, "writer").build();
+    ParameterSpec value = ParameterSpec.builder(collection.type, "value").build();
+    CodeBlock element = collection.isMap()
+        ? CodeBlock.of("entry.getValue()")
+        : CodeBlock.of("element");
+    CodeBlock write = elementAdapter != null
+        ? CodeBlock.of("$L.toJson($N, $L)", elementAdapter, writer, element)
+        : writeInlineValue(collection.element, writer, element);
+    if (elementAdapter == null && collection.element.isBoxedPrimitive()) {
+      // Boxed elements are unboxed to be written, so nulls are written on their own
+      write = CodeBlock.builder()
+          .beginControlFlow("if ($L == null)", element)
+          .addStatement("$N.nullValue()", writer)
+          .nextControlFlow("else")
+          .addStatement("$L", write)
+          .endControlFlow()
+          .build();
+    } else {
+      write = CodeBlock.builder().addStatement("$L", write).build();
+    }
+    MethodSpec.Builder method = MethodSpec.methodBuilder("write" + capitalize(prop.humanName))
+        .addModifiers(PRIVATE)
+        .addParameter(writer)
+        .addParameter(value)
+        .addException(IOException.class);
+    if (collection.isMap()) {
+      method.addStatement("$N.beginObject()", writer)
+          .beginControlFlow("for ($T entry : $N.entrySet())", ParameterizedTypeName.get(
+              ClassName.get(Map.Entry.class), STRING_CLASS_NAME, collection.element), value)
+          .addStatement("$T name = entry.getKey()", String.class)
+          .beginControlFlow("if (name == null)")
+          .addStatement("throw new $T($S + $N.getPath())", JsonDataException.class,
+              "Map key is null at ", writer)
+          .endControlFlow()
+          .addStatement("$N.name(name)", writer)
+          .addCode(write)
+          .endControlFlow()
+          .addStatement("$N.endObject()", writer);
+    } else {
+      method.addStatement("$N.beginArray()", writer)
+          .beginControlFlow("for ($T element : $N)", collection.element, value)
+          .addCode(write)
+          .endControlFlow()
+          .addStatement("$N.endArray()", writer);
+    }
+    return method.build();
+  }
+
+  private static String capitalize(String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /** Returns the {@link MoshiAdapterOptions} of the AutoValue class, or null if it has none. */
+  @Nullable
+  private static MoshiAdapterOptions adapterOptions(Context context) {
+    return context.autoValueClass().getAnnotation(MoshiAdapterOptions.class);
+  }
+
+  private void addFieldSetting(CodeBlock.Builder block, Property prop, FieldSpec field,
+      @Nullable CodeBlock adapter, @Nullable CodeBlock linkedAdapter,
+      @Nullable MethodSpec collectionReader, ParameterSpec reader) {
+    block.addStatement("$N = $L", field,
+        readValue(prop, adapter, linkedAdapter, collectionReader, reader));
+  }
+
+  /**
+   * Returns an expression reading the next value of {@code prop} from {@code reader}, either
+   * inline or through the delegate adapter returned by the {@code adapter} expression. Non-null
+   * values go through the {@code linkedAdapter} instead, when there is one and it's non-null.
+   * Collections with a {@code collectionReader} are read by calling it.
+   */
+  private static CodeBlock readValue(Property prop, @Nullable CodeBlock adapter,
+      @Nullable CodeBlock linkedAdapter, @Nullable MethodSpec collectionReader,
+      ParameterSpec reader) {
+    if (collectionReader != null) {
+      CodeBlock read = CodeBlock.of("$N($N)", collectionReader, reader);
+      return prop.nullable()
+          ? CodeBlock.of("$N.peek() == $T.NULL ? $N.<$T>nextNull() : $L", reader,
+              JsonReader.Token.class, reader, prop.type, read)
+          : read;
+    }
+    if (linkedAdapter != null) {
+      return CodeBlock.of("$L != null && $N.peek() != $T.NULL ? $L.fromJson($N) : $L.fromJson($N)",
+          linkedAdapter, reader, JsonReader.Token.class, linkedAdapter, reader, adapter, reader);
+    }
+    if (!prop.isInlined()) {
+      return CodeBlock.of("$L.fromJson($N)", adapter, reader);
+    }
+    TypeName type = prop.type;
+    if (prop.nullable()) {
+      // Mirrors JsonAdapter.nullSafe(), non-null values rely on JsonReader rejecting nulls
+      return CodeBlock.of("$N.peek() == $T.NULL ? $N.<$T>nextNull() : $L", reader,
+          JsonReader.Token.class, reader, type, readInlineValue(type, reader));
+    }
+    return readInlineValue(type, reader);
+  }
+
+  private static CodeBlock readInlineValue(TypeName type, ParameterSpec reader) {
+    if (type.isBoxedPrimitive()) {
+      // Boxed explicitly, the nullable conditional would otherwise unbox its null branch
+      return CodeBlock.of("$T.valueOf($L)", type, readInlineValue(type.unbox(), reader));
+    } else if (type.equals(STRING_CLASS_NAME)) {
+      return CodeBlock.of("$N.nextString()", reader);
+    } else if (type == TypeName.BOOLEAN) {
+      return CodeBlock.of("$N.nextBoolean()", reader);
+    } else if (type == TypeName.INT) {
+      return CodeBlock.of("$N.nextInt()", reader);
+    } else if (type == TypeName.LONG) {
+      return CodeBlock.of("$N.nextLong()", reader);
+    } else if (type == TypeName.DOUBLE) {
+      return CodeBlock.of("$N.nextDouble()", reader);
+    } else {
+      throw new IllegalArgumentException("Unsupported inlined type: " + type);
+    }
   }
 
   private static void addBuilderFieldSetting(CodeBlock.Builder block,
                                              Property prop,
-                                             FieldSpec adapter,
+                                             CodeBlock adapter,
+                                             @Nullable CodeBlock linkedAdapter,
+                                             @Nullable MethodSpec collectionReader,
                                              ParameterSpec jsonReader,
                                              FieldSpec builder,
                                              BuilderContext builderContext) {
-    Stream<MethodSpec> setterMethodSpecs = builderContext.setters().get(prop.humanName).stream()
-            .map(setterMethod -> MethodSpec.overriding(setterMethod).build());
-
-    // If setter param type matches field type
-    Optional<MethodSpec> setter = setterMethodSpecs
-            // Find setter with param type equal to field type.
-            .filter(methodSpec -> methodSpec.parameters.get(0).type.equals(prop.builderType))
-            .findFirst();
-
-    if (setter.isPresent()) {
-      block.addStatement("$N.$N($N.fromJson($N))", builder, setter.get(), adapter, jsonReader);
+    MethodSpec setter = findSetter(prop, builderContext);
+    if (setter != null) {
+      block.addStatement("$N.$N($L)", builder, setter,
+          readValue(prop, adapter, linkedAdapter, collectionReader, jsonReader));
     } else {
       // Optional fields are not supported.
       String errorMsg =
@@ -763,6 +1748,21 @@ public final class AutoValueMoshiExtension extends AutoValueExtension {
     }
   }
 
+  /** Returns the builder setter accepting the type of {@code prop}, or null if there is none. */
+  @Nullable
+  private static MethodSpec findSetter(Property prop, BuilderContext builderContext) {
+    Set<ExecutableElement> setters = builderContext.setters().get(prop.humanName);
+    if (setters == null) {
+      return null;
+    }
+    return setters.stream()
+        .map(setterMethod -> MethodSpec.overriding(setterMethod).build())
+        // Find setter with param type equal to field type.
+        .filter(methodSpec -> methodSpec.parameters.get(0).type.equals(prop.builderType))
+        .findFirst()
+        .orElse(null);
+  }
+
   private String defaultValue(TypeName type) {
     if (type == TypeName.BOOLEAN) {
       return "false";
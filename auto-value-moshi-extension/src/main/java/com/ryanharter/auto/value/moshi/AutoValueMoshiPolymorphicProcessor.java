@@ -0,0 +1,357 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.google.auto.common.AnnotationMirrors;
+import com.google.auto.common.GeneratedAnnotationSpecs;
+import com.google.auto.common.MoreElements;
+import com.google.auto.common.MoreTypes;
+import com.google.auto.service.AutoService;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.NameAllocator;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import net.ltgt.gradle.incap.IncrementalAnnotationProcessor;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static net.ltgt.gradle.incap.IncrementalAnnotationProcessorType.ISOLATING;
+
+/**
+ * Annotation Processor responsible for the generation of the {@link JsonAdapter} of types
+ * annotated with {@link MoshiPolymorphic}, which dispatches to the adapters of their subtypes by
+ * label.
+ */
+@IncrementalAnnotationProcessor(ISOLATING)
+@AutoService(Processor.class)
+public final class AutoValueMoshiPolymorphicProcessor extends AbstractProcessor {
+  private static final ClassName ADAPTER_CLASS_NAME = ClassName.get(JsonAdapter.class);
+
+  @Override public Set<String> getSupportedAnnotationTypes() {
+    return ImmutableSet.of(MoshiPolymorphic.class.getName());
+  }
+
+  @Override public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override public boolean process(Set<? extends TypeElement> annotations,
+      RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(MoshiPolymorphic.class)) {
+      // Safe to cast because this is only applicable on types anyway
+      TypeElement type = (TypeElement) element;
+      List<Subtype> subtypes = readSubtypes(type);
+      if (subtypes == null) {
+        continue;
+      }
+      String labelKey = type.getAnnotation(MoshiPolymorphic.class).labelKey();
+      ClassName typeName = ClassName.get(type);
+      ClassName adapterName = ClassName.get(typeName.packageName(),
+          Types.generatedJsonAdapterName(Joiner.on("$").join(typeName.simpleNames())));
+
+      TypeSpec adapter = createAdapter(type, adapterName, labelKey, subtypes);
+      try {
+        JavaFile.builder(adapterName.packageName(), adapter)
+            .skipJavaLangImports(true)
+            .build()
+            .writeTo(processingEnv.getFiler());
+        // Kept like external adapters, for Moshi's lookup through @JsonClass
+        ProguardConfig.create(true, typeName, adapterName,
+            ImmutableList.of(Moshi.class.getName()), ImmutableSet.of(), ImmutableList.of())
+            .writeTo(processingEnv.getFiler(), type);
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(ERROR,
+            String.format("Failed to write polymorphic JsonAdapter for element \"%s\" with "
+                + "reason \"%s\"", type, e.getMessage()), type);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the subtypes of {@code type} declared in its {@link MoshiPolymorphic}, or null after
+   * reporting an error if they can't be dispatched to.
+   */
+  @Nullable
+  private List<Subtype> readSubtypes(TypeElement type) {
+    if (!type.getTypeParameters().isEmpty()) {
+      error(type, "@MoshiPolymorphic types can't have type parameters.");
+      return null;
+    }
+    if (!AutoValueMoshiExtension.generateExternalAdapter(type)) {
+      // Moshi only looks up the generated adapter through this annotation
+      error(type, "@MoshiPolymorphic types must be annotated with "
+          + "@JsonClass(generateAdapter = true, generator = \"avm\").");
+      return null;
+    }
+    AnnotationMirror annotation = null;
+    for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+      if (MoreElements.asType(mirror.getAnnotationType().asElement()).getQualifiedName()
+          .contentEquals(MoshiPolymorphic.class.getCanonicalName())) {
+        annotation = mirror;
+      }
+    }
+    if (annotation == null) {
+      return null;
+    }
+
+    List<Subtype> subtypes = new ArrayList<>();
+    for (AnnotationValue value : values(AnnotationMirrors.getAnnotationValue(annotation,
+        "subtypes"))) {
+      AnnotationMirror subtype = (AnnotationMirror) value.getValue();
+      TypeMirror subtypeType =
+          (TypeMirror) AnnotationMirrors.getAnnotationValue(subtype, "type").getValue();
+      String label = (String) AnnotationMirrors.getAnnotationValue(subtype, "label").getValue();
+      if (subtypeType.getKind() != TypeKind.DECLARED
+          || !MoreTypes.asTypeElement(subtypeType).getTypeParameters().isEmpty()) {
+        error(type, "Subtype %s must be a class without type parameters.", subtypeType);
+        return null;
+      }
+      if (!processingEnv.getTypeUtils().isAssignable(subtypeType, type.asType())) {
+        error(type, "%s is not a subtype of %s.", subtypeType, type);
+        return null;
+      }
+      for (Subtype other : subtypes) {
+        if (other.label.equals(label)) {
+          error(type, "Label \"%s\" is used by both %s and %s.", label, other.type, subtypeType);
+          return null;
+        }
+        if (other.type.equals(MoreTypes.asTypeElement(subtypeType))) {
+          error(type, "Subtype %s is listed more than once.", subtypeType);
+          return null;
+        }
+      }
+      subtypes.add(new Subtype(MoreTypes.asTypeElement(subtypeType), label));
+    }
+    if (subtypes.isEmpty()) {
+      error(type, "@MoshiPolymorphic needs at least one subtype.");
+      return null;
+    }
+    return subtypes;
+  }
+
+  private TypeSpec createAdapter(TypeElement type, ClassName adapterName, String labelKey,
+      List<Subtype> subtypes) {
+    ClassName typeName = ClassName.get(type);
+    List<String> labels = subtypes.stream().map(s -> s.label).collect(Collectors.toList());
+    TypeSpec.Builder adapter = TypeSpec.classBuilder(adapterName)
+        .addOriginatingElement(type)
+        .addModifiers(PUBLIC, FINAL)
+        .superclass(ParameterizedTypeName.get(ADAPTER_CLASS_NAME, typeName));
+
+    GeneratedAnnotationSpecs.generatedAnnotationSpec(
+        processingEnv.getElementUtils(),
+        processingEnv.getSourceVersion(),
+        AutoValueMoshiPolymorphicProcessor.class,
+        AutoValueMoshiExtension.GENERATED_COMMENTS
+    ).ifPresent(adapter::addAnnotation);
+
+    ArrayTypeName stringArray = ArrayTypeName.of(String.class);
+    ClassName optionsCN = ClassName.get(JsonReader.Options.class);
+    FieldSpec labelKeyOptions = FieldSpec.builder(optionsCN, "LABEL_KEY_OPTIONS",
+        PRIVATE, STATIC, FINAL)
+        .initializer("$T.of($S)", JsonReaderOptions.class, labelKey)
+        .build();
+    FieldSpec labelsField = FieldSpec.builder(stringArray, "LABELS", PRIVATE, STATIC, FINAL)
+        .initializer("new $T {$L}", stringArray, labels.stream()
+            .map(label -> CodeBlock.of("$S", label))
+            .collect(CodeBlock.joining(", ")))
+        .build();
+    FieldSpec labelOptions = FieldSpec.builder(optionsCN, "LABEL_OPTIONS", PRIVATE, STATIC, FINAL)
+        .initializer("$T.of($N)", JsonReaderOptions.class, labelsField)
+        .build();
+    adapter.addField(labelKeyOptions)
+        .addField(labelsField)
+        .addField(labelOptions);
+
+    // Subtype adapters are resolved once, so user registered adapters still apply
+    ParameterSpec moshi = ParameterSpec.builder(Moshi.class, "moshi").build();
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PUBLIC)
+        .addParameter(moshi);
+    NameAllocator fieldNames = new NameAllocator();
+    List<FieldSpec> adapterFields = new ArrayList<>(subtypes.size());
+    for (Subtype subtype : subtypes) {
+      ClassName subtypeName = ClassName.get(subtype.type);
+      String simpleName = subtypeName.simpleName();
+      FieldSpec field = FieldSpec.builder(
+          ParameterizedTypeName.get(ADAPTER_CLASS_NAME, subtypeName),
+          fieldNames.newName(Character.toLowerCase(simpleName.charAt(0))
+              + simpleName.substring(1) + "Adapter"),
+          PRIVATE, FINAL)
+          .build();
+      adapterFields.add(field);
+      adapter.addField(field);
+      constructor.addStatement("this.$N = $N.adapter($T.class)", field, moshi, subtypeName);
+    }
+    adapter.addMethod(constructor.build());
+
+    ParameterSpec reader = ParameterSpec.builder(JsonReader.class, "reader").build();
+    MethodSpec selectLabel = MethodSpec.methodBuilder("selectLabel")
+        .addModifiers(PRIVATE, STATIC)
+        .returns(TypeName.INT)
+        .addParameter(reader)
+        .addException(IOException.class)
+        .addStatement("$N.beginObject()", reader)
+        .beginControlFlow("while ($N.hasNext())", reader)
+        .beginControlFlow("if ($N.selectName($N) == -1)", reader, labelKeyOptions)
+        .addStatement("$N.skipName()", reader)
+        .addStatement("$N.skipValue()", reader)
+        .addStatement("continue")
+        .endControlFlow()
+        .addStatement("int label = $N.selectString($N)", reader, labelOptions)
+        .beginControlFlow("if (label == -1)")
+        .addStatement("throw new $T($S + $N.nextString() + $S)", JsonDataException.class,
+            "Expected one of " + labels + " for key '" + labelKey + "' but found '", reader,
+            "'. Register a subtype for this label.")
+        .endControlFlow()
+        .addStatement("return label")
+        .endControlFlow()
+        .addStatement("throw new $T($S)", JsonDataException.class, "Missing label for " + labelKey)
+        .build();
+
+    MethodSpec.Builder fromJson = MethodSpec.methodBuilder("fromJson")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(typeName)
+        .addParameter(reader)
+        .addException(IOException.class)
+        .addStatement("int label")
+        // Peeking only reads up to the label, which toJson writes first
+        .addStatement("$T peeked = $N.peekJson()", JsonReader.class, reader)
+        .addStatement("peeked.setFailOnUnknown(false)")
+        .beginControlFlow("try")
+        .addStatement("label = $N(peeked)", selectLabel)
+        .nextControlFlow("finally")
+        .addStatement("peeked.close()")
+        .endControlFlow()
+        .beginControlFlow("switch (label)");
+    for (int i = 0; i < subtypes.size(); i++) {
+      fromJson.beginControlFlow("case $L:", i)
+          .addStatement("return this.$N.fromJson($N)", adapterFields.get(i), reader)
+          .endControlFlow();
+    }
+    fromJson.beginControlFlow("default:")
+        .addStatement("throw new $T()", AssertionError.class)
+        .endControlFlow()
+        .endControlFlow();
+
+    TypeVariableName t = TypeVariableName.get("T");
+    ParameterSpec writer = ParameterSpec.builder(JsonWriter.class, "writer").build();
+    MethodSpec write = MethodSpec.methodBuilder("write")
+        .addModifiers(PRIVATE, STATIC)
+        .addTypeVariable(t)
+        .addParameter(writer)
+        .addParameter(String.class, "label")
+        .addParameter(ParameterizedTypeName.get(ADAPTER_CLASS_NAME, t), "adapter")
+        .addParameter(t, "value")
+        .addException(IOException.class)
+        .addStatement("$N.beginObject()", writer)
+        .addStatement("$N.name($S).value(label)", writer, labelKey)
+        .addStatement("int flattenToken = $N.beginFlatten()", writer)
+        .addStatement("adapter.toJson($N, value)", writer)
+        .addStatement("$N.endFlatten(flattenToken)", writer)
+        .addStatement("$N.endObject()", writer)
+        .build();
+
+    ParameterSpec value = ParameterSpec.builder(typeName, "value").build();
+    MethodSpec.Builder toJson = MethodSpec.methodBuilder("toJson")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(writer)
+        .addParameter(value)
+        .addException(IOException.class);
+    for (int i = 0; i < subtypes.size(); i++) {
+      ClassName subtypeName = ClassName.get(subtypes.get(i).type);
+      String condition = "if ($N instanceof $T)";
+      if (i == 0) {
+        toJson.beginControlFlow(condition, value, subtypeName);
+      } else {
+        toJson.nextControlFlow("else " + condition, value, subtypeName);
+      }
+      toJson.addStatement("$N($N, $N[$L], this.$N, ($T) $N)", write, writer, labelsField, i,
+          adapterFields.get(i), subtypeName, value);
+    }
+    toJson.nextControlFlow("else")
+        .addStatement("throw new $T($S + $N + $S + $N.getClass() + $S)",
+            IllegalArgumentException.class,
+            "Expected one of " + subtypes.stream().map(s -> s.type).collect(Collectors.toList())
+                + " but found ", value, ", a ", value, ". Register this subtype.")
+        .endControlFlow();
+
+    return adapter
+        .addMethod(fromJson.build())
+        .addMethod(toJson.build())
+        .addMethod(MethodSpec.methodBuilder("toString")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(String.class)
+            .addStatement("return new $T().append($S).append($S).append($S).toString()",
+                StringBuilder.class,
+                "JsonAdapter(",
+                Joiner.on(".").join(typeName.simpleNames()),
+                ")"
+            )
+            .build())
+        .addMethod(selectLabel)
+        .addMethod(write)
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<? extends AnnotationValue> values(AnnotationValue value) {
+    return (List<? extends AnnotationValue>) value.getValue();
+  }
+
+  private void error(Element element, String message, Object... args) {
+    if (args.length > 0) {
+      message = String.format(message, args);
+    }
+    processingEnv.getMessager().printMessage(ERROR, message, element);
+  }
+
+  /** A subtype of a {@link MoshiPolymorphic} type and its label. */
+  private static final class Subtype {
+    final TypeElement type;
+    final String label;
+
+    Subtype(TypeElement type, String label) {
+      this.type = type;
+      this.label = label;
+    }
+  }
+}
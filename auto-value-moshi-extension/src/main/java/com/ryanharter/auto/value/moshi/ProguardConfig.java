@@ -16,7 +16,8 @@ import static javax.tools.StandardLocation.CLASS_OUTPUT;
  * <ul>
  * <li>Keeping the target class name to Moshi's reflective lookup of the adapter if it's external.</li>
  * <li>Keeping the generated adapter class name + public constructor for reflective lookup if it's external.</li>
- * <li>Keeping any used JsonQualifier annotations and the properties they are attached to.</li>
+ * <li>Keeping any used JsonQualifier annotations and the properties they are attached to, in the
+ * generated adapter and each specialized adapter.</li>
  * </ul>
  * <p>
  * Each rule is intended to be as specific and targeted as possible to reduce footprint, and each is
@@ -33,6 +34,7 @@ abstract class ProguardConfig {
   abstract ClassName adapterName();
   abstract List<String> adapterConstructorParams();
   abstract Set<QualifierAdapterProperty> qualifierProperties();
+  abstract List<ClassName> specializedAdapterNames();
   abstract String outputFile();
 
   static ProguardConfig create(
@@ -40,13 +42,15 @@ abstract class ProguardConfig {
       ClassName targetClass,
       ClassName adapterName,
       List<String> adapterConstructorParams,
-      Set<QualifierAdapterProperty> qualifierProperties) {
+      Set<QualifierAdapterProperty> qualifierProperties,
+      List<ClassName> specializedAdapterNames) {
     String outputFile = "META-INF/proguard/avm-" + targetClass.canonicalName() + ".pro";
     return new AutoValue_ProguardConfig(isExternal,
         targetClass,
         adapterName,
         adapterConstructorParams,
         qualifierProperties,
+        specializedAdapterNames,
         outputFile);
   }
 
@@ -97,13 +101,23 @@ abstract class ProguardConfig {
             .append(");\n");
       }
       // Keep any qualifier properties
-      for (QualifierAdapterProperty qualifierProperty : qualifierProperties()) {
-        out.append("    private com.squareup.moshi.JsonAdapter ")
-            .append(qualifierProperty.name())
-            .append(";\n");
-      }
+      writeQualifierProperties(out);
       out.append("}\n");
 
+      // Specialized adapters are created directly, but look up the same qualifiers
+      if (!qualifierProperties().isEmpty()) {
+        for (ClassName specializedAdapter : specializedAdapterNames()) {
+          out.append("-if class ")
+              .append(targetName)
+              .append("\n");
+          out.append("-keep class ")
+              .append(specializedAdapter.canonicalName())
+              .append(" {\n");
+          writeQualifierProperties(out);
+          out.append("}\n");
+        }
+      }
+
       qualifierProperties().stream()
           .flatMap(prop -> prop.qualifiers().stream())
           .map(ClassName::reflectionName)
@@ -125,6 +139,14 @@ abstract class ProguardConfig {
     }
   }
 
+  private void writeQualifierProperties(Appendable out) throws IOException {
+    for (QualifierAdapterProperty qualifierProperty : qualifierProperties()) {
+      out.append("    private com.squareup.moshi.JsonAdapter ")
+          .append(qualifierProperty.name())
+          .append(";\n");
+    }
+  }
+
   /**
    * Represents a qualified property with its {@link #name} in the adapter fields and list of
    * {@link #qualifiers} associated with it.
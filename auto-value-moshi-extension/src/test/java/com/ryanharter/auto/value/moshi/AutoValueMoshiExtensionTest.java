@@ -87,6 +87,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.ryanharter.auto.value.moshi.Nullable;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
@@ -94,7 +95,6 @@ public final class AutoValueMoshiExtensionTest {
         + "import com.squareup.moshi.Moshi;\n"
         + "import com.squareup.moshi.Types;\n"
         + "import java.io.IOException;\n"
-        + "import java.lang.Integer;\n"
         + "import java.lang.Number;\n"
         + "import java.lang.Override;\n"
         + "import java.lang.String;\n"
@@ -115,24 +115,16 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"b\",\"c\",\"_D\",\"e\",\"f\",\"g\",\"i\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> aAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    private final JsonAdapter<int[]> bAdapter;\n"
-        + "    private final JsonAdapter<Integer> cAdapter;\n"
-        + "    private final JsonAdapter<String> dAdapter;\n"
         + "    private final JsonAdapter<Map<String, Number>> eAdapter;\n"
         + "    private final JsonAdapter<Set<? extends String>> fAdapter;\n"
         + "    private final JsonAdapter<Map<String, Set<? super String>>> gAdapter;\n"
-        + "    private final JsonAdapter<String> iAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.aAdapter = moshi.adapter(String.class).nonNull();\n"
         + "      this.bAdapter = moshi.adapter(int[].class).nonNull();\n"
-        + "      this.cAdapter = moshi.adapter(int.class).nonNull();\n"
-        + "      this.dAdapter = moshi.adapter(String.class).nonNull();\n"
         + "      this.eAdapter = moshi.<Map<String, Number>>adapter(Types.newParameterizedType(Map.class, String.class, Number.class)).nonNull();\n"
         + "      this.fAdapter = moshi.<Set<? extends String>>adapter(Types.newParameterizedType(Set.class, Types.subtypeOf(String.class))).nonNull();\n"
         + "      this.gAdapter = moshi.<Map<String, Set<? super String>>>adapter(Types.newParameterizedType(Map.class, String.class, Types.newParameterizedType(Set.class, Types.supertypeOf(String.class)))).nonNull();\n"
-        + "      this.iAdapter = moshi.adapter(String.class).nullSafe();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Test fromJson(JsonReader reader) throws IOException {\n"
@@ -148,7 +140,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            a = this.aAdapter.fromJson(reader);\n"
+        + "            a = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
@@ -156,11 +148,11 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 2: {\n"
-        + "            c = this.cAdapter.fromJson(reader);\n"
+        + "            c = reader.nextInt();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 3: {\n"
-        + "            d = this.dAdapter.fromJson(reader);\n"
+        + "            d = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 4: {\n"
@@ -176,7 +168,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 7: {\n"
-        + "            i = this.iAdapter.fromJson(reader);\n"
+        + "            i = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -193,13 +185,13 @@ public final class AutoValueMoshiExtensionTest {
         + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
         + "      writer.beginObject();\n"
         + "      writer.name(\"a\");\n"
-        + "      this.aAdapter.toJson(writer, value.a());\n"
+        + "      writer.value(value.a());\n"
         + "      writer.name(\"b\");\n"
         + "      this.bAdapter.toJson(writer, value.b());\n"
         + "      writer.name(\"c\");\n"
-        + "      this.cAdapter.toJson(writer, value.c());\n"
+        + "      writer.value(value.c());\n"
         + "      writer.name(\"_D\");\n"
-        + "      this.dAdapter.toJson(writer, value.d());\n"
+        + "      writer.value(value.d());\n"
         + "      writer.name(\"e\");\n"
         + "      this.eAdapter.toJson(writer, value.e());\n"
         + "      writer.name(\"f\");\n"
@@ -209,7 +201,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      String i = value.i();\n"
         + "      if (i != null) {\n"
         + "        writer.name(\"i\");\n"
-        + "        this.iAdapter.toJson(writer, i);\n"
+        + "        writer.value(i);\n"
         + "      }\n"
         + "      writer.endObject();\n"
         + "    }\n"
@@ -268,6 +260,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/TestJsonAdapter", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -285,33 +278,21 @@ public final class AutoValueMoshiExtensionTest {
         + "public final class TestJsonAdapter extends JsonAdapter<Test> {\n"
         + "  private static final String[] NAMES = new String[] {\"a\",\"b\",\"c\",\"_D\",\"e\",\"f\",\"g\",\"i\"};\n"
         + "\n"
-        + "  private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "\n"
-        + "  private final JsonAdapter<String> aAdapter;\n"
+        + "  private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "\n"
         + "  private final JsonAdapter<int[]> bAdapter;\n"
         + "\n"
-        + "  private final JsonAdapter<Integer> cAdapter;\n"
-        + "\n"
-        + "  private final JsonAdapter<String> dAdapter;\n"
-        + "\n"
         + "  private final JsonAdapter<Map<String, Number>> eAdapter;\n"
         + "\n"
         + "  private final JsonAdapter<Set<? extends String>> fAdapter;\n"
         + "\n"
         + "  private final JsonAdapter<Map<String, Set<? super String>>> gAdapter;\n"
         + "\n"
-        + "  private final JsonAdapter<String> iAdapter;\n"
-        + "\n"
         + "  public TestJsonAdapter(Moshi moshi) {\n"
-        + "    this.aAdapter = moshi.adapter(String.class).nonNull();\n"
         + "    this.bAdapter = moshi.adapter(int[].class).nonNull();\n"
-        + "    this.cAdapter = moshi.adapter(int.class).nonNull();\n"
-        + "    this.dAdapter = moshi.adapter(String.class).nonNull();\n"
         + "    this.eAdapter = moshi.<Map<String, Number>>adapter(Types.newParameterizedType(Map.class, String.class, Number.class)).nonNull();\n"
         + "    this.fAdapter = moshi.<Set<? extends String>>adapter(Types.newParameterizedType(Set.class, Types.subtypeOf(String.class))).nonNull();\n"
         + "    this.gAdapter = moshi.<Map<String, Set<? super String>>>adapter(Types.newParameterizedType(Map.class, String.class, Types.newParameterizedType(Set.class, Types.supertypeOf(String.class)))).nonNull();\n"
-        + "    this.iAdapter = moshi.adapter(String.class).nullSafe();\n"
         + "  }\n"
         + "\n"
         + "  @Override\n"
@@ -328,7 +309,7 @@ public final class AutoValueMoshiExtensionTest {
         + "    while (reader.hasNext()) {\n"
         + "      switch (reader.selectName(OPTIONS)) {\n"
         + "        case 0: {\n"
-        + "          a = this.aAdapter.fromJson(reader);\n"
+        + "          a = reader.nextString();\n"
         + "          break;\n"
         + "        }\n"
         + "        case 1: {\n"
@@ -336,11 +317,11 @@ public final class AutoValueMoshiExtensionTest {
         + "          break;\n"
         + "        }\n"
         + "        case 2: {\n"
-        + "          c = this.cAdapter.fromJson(reader);\n"
+        + "          c = reader.nextInt();\n"
         + "          break;\n"
         + "        }\n"
         + "        case 3: {\n"
-        + "          d = this.dAdapter.fromJson(reader);\n"
+        + "          d = reader.nextString();\n"
         + "          break;\n"
         + "        }\n"
         + "        case 4: {\n"
@@ -356,7 +337,7 @@ public final class AutoValueMoshiExtensionTest {
         + "          break;\n"
         + "        }\n"
         + "        case 7: {\n"
-        + "          i = this.iAdapter.fromJson(reader);\n"
+        + "          i = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "          break;\n"
         + "        }\n"
         + "        case -1: {\n"
@@ -374,13 +355,13 @@ public final class AutoValueMoshiExtensionTest {
         + "  public void toJson(JsonWriter writer, Test value) throws IOException {\n"
         + "    writer.beginObject();\n"
         + "    writer.name(\"a\");\n"
-        + "    this.aAdapter.toJson(writer, value.a());\n"
+        + "    writer.value(value.a());\n"
         + "    writer.name(\"b\");\n"
         + "    this.bAdapter.toJson(writer, value.b());\n"
         + "    writer.name(\"c\");\n"
-        + "    this.cAdapter.toJson(writer, value.c());\n"
+        + "    writer.value(value.c());\n"
         + "    writer.name(\"_D\");\n"
-        + "    this.dAdapter.toJson(writer, value.d());\n"
+        + "    writer.value(value.d());\n"
         + "    writer.name(\"e\");\n"
         + "    this.eAdapter.toJson(writer, value.e());\n"
         + "    writer.name(\"f\");\n"
@@ -390,7 +371,7 @@ public final class AutoValueMoshiExtensionTest {
         + "    String i = value.i();\n"
         + "    if (i != null) {\n"
         + "      writer.name(\"i\");\n"
-        + "      this.iAdapter.toJson(writer, i);\n"
+        + "      writer.value(i);\n"
         + "    }\n"
         + "    writer.endObject();\n"
         + "  }\n"
@@ -494,6 +475,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.ryanharter.auto.value.moshi.Nullable;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
@@ -524,18 +506,14 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"b\",\"c\",\"d\",\"e\",\"f\",\"g\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> aAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    private final JsonAdapter<int[]> bAdapter;\n"
-        + "    private final JsonAdapter<Integer> cAdapter;\n"
         + "    private final JsonAdapter<List<String>> dAdapter;\n"
         + "    private final JsonAdapter<Map<String, Number>> eAdapter;\n"
         + "    private final JsonAdapter<Set<? extends String>> fAdapter;\n"
         + "    private final JsonAdapter<Map<String, Set<? super String>>> gAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.aAdapter = moshi.adapter(String.class).nullSafe();\n"
         + "      this.bAdapter = moshi.adapter(int[].class).nullSafe();\n"
-        + "      this.cAdapter = moshi.adapter(Integer.class).nullSafe();\n"
         + "      this.dAdapter = moshi.<List<String>>adapter(Types.newParameterizedType(List.class, String.class)).nullSafe();\n"
         + "      this.eAdapter = moshi.<Map<String, Number>>adapter(Types.newParameterizedType(Map.class, String.class, Number.class)).nullSafe();\n"
         + "      this.fAdapter = moshi.<Set<? extends String>>adapter(Types.newParameterizedType(Set.class, Types.subtypeOf(String.class))).nullSafe();\n"
@@ -554,7 +532,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            a = this.aAdapter.fromJson(reader);\n"
+        + "            a = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
@@ -562,7 +540,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 2: {\n"
-        + "            c = this.cAdapter.fromJson(reader);\n"
+        + "            c = reader.peek() == JsonReader.Token.NULL ? reader.<Integer>nextNull() : Integer.valueOf(reader.nextInt());\n"
         + "            break;\n"
         + "          }\n"
         + "          case 3: {\n"
@@ -597,7 +575,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      String a = value.a();\n"
         + "      if (a != null) {\n"
         + "        writer.name(\"a\");\n"
-        + "        this.aAdapter.toJson(writer, a);\n"
+        + "        writer.value(a);\n"
         + "      }\n"
         + "      int[] b = value.b();\n"
         + "      if (b != null) {\n"
@@ -607,7 +585,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      Integer c = value.c();\n"
         + "      if (c != null) {\n"
         + "        writer.name(\"c\");\n"
-        + "        this.cAdapter.toJson(writer, c);\n"
+        + "        writer.value(c.longValue());\n"
         + "      }\n"
         + "      List<String> d = value.d();\n"
         + "      if (d != null) {\n"
@@ -667,6 +645,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.ryanharter.auto.value.moshi.Nullable;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
@@ -689,12 +668,8 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
         + "    private static final String[] NAMES = new String[] {\"value\",\"writer\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> valueAdapter;\n"
-        + "    private final JsonAdapter<String> writerAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.valueAdapter = moshi.adapter(String.class).nullSafe();\n"
-        + "      this.writerAdapter = moshi.adapter(String.class).nullSafe();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Test fromJson(JsonReader reader) throws IOException {\n"
@@ -704,11 +679,11 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            value = this.valueAdapter.fromJson(reader);\n"
+        + "            value = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            writer = this.writerAdapter.fromJson(reader);\n"
+        + "            writer = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -727,12 +702,12 @@ public final class AutoValueMoshiExtensionTest {
         + "      String value_ = value.value();\n"
         + "      if (value_ != null) {\n"
         + "        writer.name(\"value\");\n"
-        + "        this.valueAdapter.toJson(writer, value_);\n"
+        + "        writer.value(value_);\n"
         + "      }\n"
         + "      String writer_ = value.writer();\n"
         + "      if (writer_ != null) {\n"
         + "        writer.name(\"writer\");\n"
-        + "        this.writerAdapter.toJson(writer, writer_);\n"
+        + "        writer.value(writer_);\n"
         + "      }\n"
         + "      writer.endObject();\n"
         + "    }\n"
@@ -772,6 +747,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.ryanharter.auto.value.moshi.Nullable;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
@@ -794,12 +770,8 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"aAdapter\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> aAdapter;\n"
-        + "    private final JsonAdapter<String> aAdapterAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.aAdapter = moshi.adapter(String.class).nullSafe();\n"
-        + "      this.aAdapterAdapter = moshi.adapter(String.class).nullSafe();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Test fromJson(JsonReader reader) throws IOException {\n"
@@ -809,11 +781,11 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            a = this.aAdapter.fromJson(reader);\n"
+        + "            a = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            aAdapter = this.aAdapterAdapter.fromJson(reader);\n"
+        + "            aAdapter = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -832,12 +804,12 @@ public final class AutoValueMoshiExtensionTest {
         + "      String a = value.a();\n"
         + "      if (a != null) {\n"
         + "        writer.name(\"a\");\n"
-        + "        this.aAdapter.toJson(writer, a);\n"
+        + "        writer.value(a);\n"
         + "      }\n"
         + "      String aAdapter = value.aAdapter();\n"
         + "      if (aAdapter != null) {\n"
         + "        writer.name(\"aAdapter\");\n"
-        + "        this.aAdapterAdapter.toJson(writer, aAdapter);\n"
+        + "        writer.value(aAdapter);\n"
         + "      }\n"
         + "      writer.endObject();\n"
         + "    }\n"
@@ -874,12 +846,12 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
         + "import com.squareup.moshi.Moshi;\n"
         + "import java.io.IOException;\n"
-        + "import java.lang.Boolean;\n"
         + "import java.lang.Override;\n"
         + "import java.lang.String;\n"
         + "import java.lang.StringBuilder;\n"
@@ -896,12 +868,8 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
         + "    private static final String[] NAMES = new String[] {\"name\",\"awesome\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> nameAdapter;\n"
-        + "    private final JsonAdapter<Boolean> awesomeAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.nameAdapter = moshi.adapter(String.class).nonNull();\n"
-        + "      this.awesomeAdapter = moshi.adapter(boolean.class).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Test fromJson(JsonReader reader) throws IOException {\n"
@@ -911,11 +879,11 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            name = this.nameAdapter.fromJson(reader);\n"
+        + "            name = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            awesome = this.awesomeAdapter.fromJson(reader);\n"
+        + "            awesome = reader.nextBoolean();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -932,9 +900,9 @@ public final class AutoValueMoshiExtensionTest {
         + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
         + "      writer.beginObject();\n"
         + "      writer.name(\"name\");\n"
-        + "      this.nameAdapter.toJson(writer, value.getName());\n"
+        + "      writer.value(value.getName());\n"
         + "      writer.name(\"awesome\");\n"
-        + "      this.awesomeAdapter.toJson(writer, value.isAwesome());\n"
+        + "      writer.value(value.isAwesome());\n"
         + "      writer.endObject();\n"
         + "    }\n"
         + "    @Override\n"
@@ -995,6 +963,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -1017,12 +986,10 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Foo> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"b\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> aAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    @FooPrefix\n"
         + "    private final JsonAdapter<String> bAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.aAdapter = moshi.adapter(String.class).nonNull();\n"
         + "      this.bAdapter = moshi.<String>adapter(String.class, Types.getFieldJsonQualifierAnnotations(getClass(), \"bAdapter\")).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
@@ -1033,7 +1000,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            a = this.aAdapter.fromJson(reader);\n"
+        + "            a = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
@@ -1054,7 +1021,7 @@ public final class AutoValueMoshiExtensionTest {
         + "    public void toJson(JsonWriter writer, Foo value) throws IOException {\n"
         + "      writer.beginObject();\n"
         + "      writer.name(\"a\");\n"
-        + "      this.aAdapter.toJson(writer, value.a());\n"
+        + "      writer.value(value.a());\n"
         + "      writer.name(\"b\");\n"
         + "      this.bAdapter.toJson(writer, value.b());\n"
         + "      writer.endObject();\n"
@@ -1135,6 +1102,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -1157,13 +1125,11 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Foo> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"b\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    @FooPrefix\n"
         + "    private final JsonAdapter<String> aAdapter;\n"
-        + "    private final JsonAdapter<String> bAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
         + "      this.aAdapter = moshi.<String>adapter(String.class, Types.getFieldJsonQualifierAnnotations(getClass(), \"aAdapter\")).nonNull();\n"
-        + "      this.bAdapter = moshi.adapter(String.class).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo fromJson(JsonReader reader) throws IOException {\n"
@@ -1177,7 +1143,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            b = this.bAdapter.fromJson(reader);\n"
+        + "            b = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -1196,7 +1162,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      writer.name(\"a\");\n"
         + "      this.aAdapter.toJson(writer, value.a());\n"
         + "      writer.name(\"b\");\n"
-        + "      this.bAdapter.toJson(writer, value.b());\n"
+        + "      writer.value(value.b());\n"
         + "      writer.endObject();\n"
         + "    }\n"
         + "    @Override\n"
@@ -1275,6 +1241,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -1297,13 +1264,11 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Foo> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"b\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    @FooPrefix\n"
         + "    private final JsonAdapter<String> aAdapter;\n"
-        + "    private final JsonAdapter<String> bAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
         + "      this.aAdapter = moshi.<String>adapter(String.class, Types.getFieldJsonQualifierAnnotations(getClass(), \"aAdapter\")).nonNull();\n"
-        + "      this.bAdapter = moshi.adapter(String.class).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo fromJson(JsonReader reader) throws IOException {\n"
@@ -1317,7 +1282,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            b = this.bAdapter.fromJson(reader);\n"
+        + "            b = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -1336,7 +1301,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      writer.name(\"a\");\n"
         + "      this.aAdapter.toJson(writer, value.a());\n"
         + "      writer.name(\"b\");\n"
-        + "      this.bAdapter.toJson(writer, value.b());\n"
+        + "      writer.value(value.b());\n"
         + "      writer.endObject();\n"
         + "    }\n"
         + "    @Override\n"
@@ -1391,18 +1356,15 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", "package "
         + "test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
         + "import com.squareup.moshi.Moshi;\n"
         + "import java.io.IOException;\n"
-        + "import java.lang.Boolean;\n"
         + "import java.lang.Byte;\n"
         + "import java.lang.Character;\n"
-        + "import java.lang.Double;\n"
         + "import java.lang.Float;\n"
-        + "import java.lang.Integer;\n"
-        + "import java.lang.Long;\n"
         + "import java.lang.Object;\n"
         + "import java.lang.Override;\n"
         + "import java.lang.Short;\n"
@@ -1423,25 +1385,17 @@ public final class AutoValueMoshiExtensionTest {
         + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
         + "    private static final String[] NAMES = new String[] {\"a\",\"b\",\"c\",\"d\",\"e\","
         + "\"f\",\"g\",\"h\",\"i\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<Boolean> aAdapter;\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    private final JsonAdapter<Byte> bAdapter;\n"
         + "    private final JsonAdapter<Short> cAdapter;\n"
-        + "    private final JsonAdapter<Integer> dAdapter;\n"
-        + "    private final JsonAdapter<Long> eAdapter;\n"
         + "    private final JsonAdapter<Character> fAdapter;\n"
         + "    private final JsonAdapter<Float> gAdapter;\n"
-        + "    private final JsonAdapter<Double> hAdapter;\n"
         + "    private final JsonAdapter<Object> iAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.aAdapter = moshi.adapter(boolean.class).nonNull();\n"
         + "      this.bAdapter = moshi.adapter(byte.class).nonNull();\n"
         + "      this.cAdapter = moshi.adapter(short.class).nonNull();\n"
-        + "      this.dAdapter = moshi.adapter(int.class).nonNull();\n"
-        + "      this.eAdapter = moshi.adapter(long.class).nonNull();\n"
         + "      this.fAdapter = moshi.adapter(char.class).nonNull();\n"
         + "      this.gAdapter = moshi.adapter(float.class).nonNull();\n"
-        + "      this.hAdapter = moshi.adapter(double.class).nonNull();\n"
         + "      this.iAdapter = moshi.adapter(Object.class).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
@@ -1459,7 +1413,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            a = this.aAdapter.fromJson(reader);\n"
+        + "            a = reader.nextBoolean();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
@@ -1471,11 +1425,11 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 3: {\n"
-        + "            d = this.dAdapter.fromJson(reader);\n"
+        + "            d = reader.nextInt();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 4: {\n"
-        + "            e = this.eAdapter.fromJson(reader);\n"
+        + "            e = reader.nextLong();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 5: {\n"
@@ -1487,7 +1441,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 7: {\n"
-        + "            h = this.hAdapter.fromJson(reader);\n"
+        + "            h = reader.nextDouble();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 8: {\n"
@@ -1508,21 +1462,21 @@ public final class AutoValueMoshiExtensionTest {
         + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
         + "      writer.beginObject();\n"
         + "      writer.name(\"a\");\n"
-        + "      this.aAdapter.toJson(writer, value.a());\n"
+        + "      writer.value(value.a());\n"
         + "      writer.name(\"b\");\n"
         + "      this.bAdapter.toJson(writer, value.b());\n"
         + "      writer.name(\"c\");\n"
         + "      this.cAdapter.toJson(writer, value.c());\n"
         + "      writer.name(\"d\");\n"
-        + "      this.dAdapter.toJson(writer, value.d());\n"
+        + "      writer.value(value.d());\n"
         + "      writer.name(\"e\");\n"
-        + "      this.eAdapter.toJson(writer, value.e());\n"
+        + "      writer.value(value.e());\n"
         + "      writer.name(\"f\");\n"
         + "      this.fAdapter.toJson(writer, value.f());\n"
         + "      writer.name(\"g\");\n"
         + "      this.gAdapter.toJson(writer, value.g());\n"
         + "      writer.name(\"h\");\n"
-        + "      this.hAdapter.toJson(writer, value.h());\n"
+        + "      writer.value(value.h());\n"
         + "      writer.name(\"i\");\n"
         + "      this.iAdapter.toJson(writer, value.i());\n"
         + "      writer.endObject();\n"
@@ -1543,166 +1497,42 @@ public final class AutoValueMoshiExtensionTest {
         .generatesSources(expected);
   }
 
-  @Test public void generatesNothingWithoutJsonAdapterMethod() {
-    JavaFileObject source = JavaFileObjects.forSourceString("test.Foo", ""
+  @Test public void qualifiedPrimitiveUsesDelegateAdapter() {
+    JavaFileObject annotation = JavaFileObjects.forSourceString("test.HexColor", ""
         + "package test;\n"
-        + "import com.google.auto.value.AutoValue;\n"
-        + "@AutoValue public abstract class Foo {\n"
-        + "  public abstract String a();\n"
-        + "  public abstract String b();\n"
+        + "import com.squareup.moshi.JsonQualifier;\n"
+        + "import java.lang.annotation.Retention;\n"
+        + "import static java.lang.annotation.RetentionPolicy.RUNTIME;\n"
+        + "@Retention(RUNTIME)\n"
+        + "@JsonQualifier\n"
+        + "public @interface HexColor {\n"
         + "}\n"
     );
-    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo",
-            "package test;\n"
-                + "\n"
-                + "import javax.annotation.Generated;\n"
-                + "\n"
-                + "@Generated(\"com.google.auto.value.processor.AutoValueProcessor\")\n"
-                + "final class AutoValue_Foo extends Foo {\n"
-                + "\n"
-                + "  private final String a;\n"
-                + "\n"
-                + "  private final String b;\n"
-                + "\n"
-                + "  AutoValue_Foo(\n"
-                + "      String a,\n"
-                + "      String b) {\n"
-                + "    if (a == null) {\n"
-                + "      throw new NullPointerException(\"Null a\");\n"
-                + "    }\n"
-                + "    this.a = a;\n"
-                + "    if (b == null) {\n"
-                + "      throw new NullPointerException(\"Null b\");\n"
-                + "    }\n"
-                + "    this.b = b;\n"
-                + "  }\n"
-                + "\n"
-                + "  @Override\n"
-                + "  public String a() {\n"
-                + "    return a;\n"
-                + "  }\n"
-                + "\n"
-                + "  @Override\n"
-                + "  public String b() {\n"
-                + "    return b;\n"
-                + "  }\n"
-                + "\n"
-                + "  @Override\n"
-                + "  public String toString() {\n"
-                + "    return \"Foo{\"\n"
-                + "        + \"a=\" + a + \", \"\n"
-                + "        + \"b=\" + b\n"
-                + "        + \"}\";\n"
-                + "  }\n"
-                + "\n"
-                + "  @Override\n"
-                + "  public boolean equals(Object o) {\n"
-                + "    if (o == this) {\n"
-                + "      return true;\n"
-                + "    }\n"
-                + "    if (o instanceof Foo) {\n"
-                + "      Foo that = (Foo) o;\n"
-                + "      return this.a.equals(that.a())\n"
-                + "          && this.b.equals(that.b());\n"
-                + "    }\n"
-                + "    return false;\n"
-                + "  }\n"
-                + "\n"
-                + "  @Override\n"
-                + "  public int hashCode() {\n"
-                + "    int h$ = 1;\n"
-                + "    h$ *= 1000003;\n"
-                + "    h$ ^= a.hashCode();\n"
-                + "    h$ *= 1000003;\n"
-                + "    h$ ^= b.hashCode();\n"
-                + "    return h$;\n"
-                + "  }\n"
-                + "\n"
-                + "}");
-
-    assertAbout(javaSource())
-        .that(source)
-        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
-        .compilesWithoutError()
-        .withWarningCount(2)
-        .and()
-        .generatesSources(expected);
-  }
-
-  @Test public void emitsWarningForWrongJsonAdapterTypeArgument() {
-    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
-        + "package test;\n"
-        + "import com.google.auto.value.AutoValue;\n"
-        + "import com.squareup.moshi.JsonAdapter;\n"
-        + "import com.squareup.moshi.Moshi;\n"
-        + "@AutoValue public abstract class Foo {\n"
-        + "  public static JsonAdapter<Bar> jsonAdapter(Moshi moshi) {\n"
-        + "    return null;"
-        + "  }\n"
-        + "  public abstract String a();\n"
-        + "  public abstract boolean b();\n"
-        + "}"
-    );
-
-    JavaFileObject source2 = JavaFileObjects.forSourceString("test.Bar", ""
-        + "package test;\n"
-        + "public class Bar {\n"
-        + "}");
-
-    assertAbout(javaSources())
-        .that(ImmutableSet.of(source1, source2))
-        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
-        .compilesWithoutError()
-        .withWarningContaining("Found static method returning JsonAdapter<test.Bar> on "
-            + "test.Foo class. Skipping MoshiJsonAdapter generation.");
-  }
-
-  @Test public void emitsWarningForNoJsonAdapterTypeArgument() {
-    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
-        + "package test;\n"
-        + "import com.google.auto.value.AutoValue;\n"
-        + "import com.squareup.moshi.JsonAdapter;\n"
-        + "import com.squareup.moshi.Moshi;\n"
-        + "@AutoValue public abstract class Foo {\n"
-        + "  public static JsonAdapter jsonAdapter(Moshi moshi) {\n"
-        + "    return null;"
-        + "  }\n"
-        + "  public abstract String a();\n"
-        + "  public abstract boolean b();\n"
-        + "}"
-    );
-
-    assertAbout(javaSource())
-        .that(source1)
-        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
-        .compilesWithoutError()
-        .withWarningContaining("Found static method returning JsonAdapter with no type "
-            + "arguments, skipping MoshiJsonAdapter generation.");
-  }
-
-  @Test public void handlesConflictingVariableNames() {
-    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
         + "package test;\n"
         + "import com.google.auto.value.AutoValue;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.Moshi;\n"
-        + "@AutoValue public abstract class Foo {\n"
-        + "  public static JsonAdapter<Foo> jsonAdapter(Moshi moshi) {\n"
-        + "    return null;"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
         + "  }\n"
-        + "  public abstract String reader();\n"
-        + "  public abstract String name();\n"
-        + "}"
+        + "  public abstract int a();\n"
+        + "  @HexColor public abstract int b();\n"
+        + "}\n"
     );
 
-    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
         + "import com.squareup.moshi.Moshi;\n"
+        + "import com.squareup.moshi.Types;\n"
         + "import java.io.IOException;\n"
+        + "import java.lang.Integer;\n"
         + "import java.lang.Override;\n"
         + "import java.lang.String;\n"
         + "import java.lang.StringBuilder;\n"
@@ -1712,33 +1542,32 @@ public final class AutoValueMoshiExtensionTest {
         + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
         + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
         + ")\n"
-        + "final class AutoValue_Foo extends $AutoValue_Foo {\n"
-        + "  AutoValue_Foo(String reader, String name) {\n"
-        + "    super(reader, name);\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(int a, int b) {\n"
+        + "    super(a, b);\n"
         + "  }\n"
         + "\n"
-        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Foo> {\n"
-        + "    private static final String[] NAMES = new String[] {\"reader\",\"name\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<String> readerAdapter;\n"
-        + "    private final JsonAdapter<String> nameAdapter;\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"a\",\"b\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    @HexColor\n"
+        + "    private final JsonAdapter<Integer> bAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi) {\n"
-        + "      this.readerAdapter = moshi.adapter(String.class).nonNull();\n"
-        + "      this.nameAdapter = moshi.adapter(String.class).nonNull();\n"
+        + "      this.bAdapter = moshi.<Integer>adapter(int.class, Types.getFieldJsonQualifierAnnotations(getClass(), \"bAdapter\")).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
-        + "    public Foo fromJson(JsonReader reader) throws IOException {\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
         + "      reader.beginObject();\n"
-        + "      String reader_ = null;\n"
-        + "      String name = null;\n"
+        + "      int a = 0;\n"
+        + "      int b = 0;\n"
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            reader_ = this.readerAdapter.fromJson(reader);\n"
+        + "            a = reader.nextInt();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            name = this.nameAdapter.fromJson(reader);\n"
+        + "            b = this.bAdapter.fromJson(reader);\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -1749,53 +1578,59 @@ public final class AutoValueMoshiExtensionTest {
         + "        }\n"
         + "      }\n"
         + "      reader.endObject();\n"
-        + "      return new AutoValue_Foo(reader_, name);\n"
+        + "      return new AutoValue_Test(a, b);\n"
         + "    }\n"
         + "    @Override\n"
-        + "    public void toJson(JsonWriter writer, Foo value) throws IOException {\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
         + "      writer.beginObject();\n"
-        + "      writer.name(\"reader\");\n"
-        + "      this.readerAdapter.toJson(writer, value.reader());\n"
-        + "      writer.name(\"name\");\n"
-        + "      this.nameAdapter.toJson(writer, value.name());\n"
+        + "      writer.name(\"a\");\n"
+        + "      writer.value(value.a());\n"
+        + "      writer.name(\"b\");\n"
+        + "      this.bAdapter.toJson(writer, value.b());\n"
         + "      writer.endObject();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public String toString() {\n"
-        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
         + "    }\n"
         + "  }\n"
         + "}"
     );
 
-    assertAbout(javaSource())
-        .that(source1)
+    assertAbout(javaSources())
+        .that(Arrays.asList(annotation, source))
         .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
         .compilesWithoutError()
         .and()
         .generatesSources(expected);
   }
 
-  @Test public void singleGenericAsParameter() {
-    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+  @Test public void lazyAdapters() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Foo", ""
         + "package test;\n"
         + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.Moshi;\n"
         + "import java.lang.reflect.Type;\n"
         + "import java.util.List;\n"
+        + "import javax.annotation.Nullable;\n"
+        + "@MoshiAdapterOptions(lazyAdapters = true)\n"
         + "@AutoValue public abstract class Foo<V> {\n"
         + "  public static <T>JsonAdapter<Foo<T>> jsonAdapter(Moshi moshi, Type[] types) {\n"
         + "    return null;"
         + "  }\n"
-        + "  public abstract List<V> items();\n"
-        + "  public abstract String name();\n"
+        + "  public abstract V item();\n"
+        + "  @Nullable public abstract List<String> tags();\n"
+        + "  public abstract int count();\n"
         + "}"
     );
 
-    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", ""
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -1808,38 +1643,69 @@ public final class AutoValueMoshiExtensionTest {
         + "import java.lang.reflect.Type;\n"
         + "import java.util.List;\n"
         + "import javax.annotation.Generated;\n"
+        + "import javax.annotation.Nullable;\n"
         + "\n"
         + "@Generated(\n"
         + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
         + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
         + ")\n"
         + "final class AutoValue_Foo<V> extends $AutoValue_Foo<V> {\n"
-        + "  AutoValue_Foo(List<V> items, String name) {\n"
-        + "    super(items, name);\n"
+        + "  AutoValue_Foo(V item, @Nullable List<String> tags, int count) {\n"
+        + "    super(item, tags, count);\n"
         + "  }\n"
         + "\n"
         + "  public static final class MoshiJsonAdapter<V> extends JsonAdapter<Foo<V>> {\n"
-        + "    private static final String[] NAMES = new String[] {\"items\",\"name\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
-        + "    private final JsonAdapter<List<V>> itemsAdapter;\n"
-        + "    private final JsonAdapter<String> nameAdapter;\n"
+        + "    private static final String[] NAMES = new String[] {\"item\",\"tags\",\"count\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
+        + "    private final Moshi moshi;\n"
+        + "    private final Type[] types;\n"
+        + "    private final Type[] resolvedTypes;\n"
+        + "    private volatile JsonAdapter<V> itemAdapter;\n"
+        + "    private volatile JsonAdapter<List<String>> tagsAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
-        + "      this.itemsAdapter = moshi.<List<V>>adapter(Types.newParameterizedType(List.class, types[0])).nonNull();\n"
-        + "      this.nameAdapter = moshi.adapter(String.class).nonNull();\n"
+        + "      Type[] resolvedTypes = RESOLVED_TYPES.get(types);\n"
+        + "      if (resolvedTypes == null) {\n"
+        + "        resolvedTypes = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "      }\n"
+        + "      this.moshi = moshi;\n"
+        + "      this.types = types;\n"
+        + "      this.resolvedTypes = resolvedTypes;\n"
+        + "    }\n"
+        + "    private JsonAdapter<V> itemAdapter() {\n"
+        + "      JsonAdapter<V> adapter = this.itemAdapter;\n"
+        + "      if (adapter == null) {\n"
+        + "        adapter = moshi.<V>adapter(types[0]).nonNull();\n"
+        + "        this.itemAdapter = adapter;\n"
+        + "      }\n"
+        + "      return adapter;\n"
+        + "    }\n"
+        + "    private JsonAdapter<List<String>> tagsAdapter() {\n"
+        + "      JsonAdapter<List<String>> adapter = this.tagsAdapter;\n"
+        + "      if (adapter == null) {\n"
+        + "        adapter = moshi.<List<String>>adapter(resolvedTypes[0]).nullSafe();\n"
+        + "        this.tagsAdapter = adapter;\n"
+        + "      }\n"
+        + "      return adapter;\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo<V> fromJson(JsonReader reader) throws IOException {\n"
         + "      reader.beginObject();\n"
-        + "      List<V> items = null;\n"
-        + "      String name = null;\n"
+        + "      V item = null;\n"
+        + "      List<String> tags = null;\n"
+        + "      int count = 0;\n"
         + "      while (reader.hasNext()) {\n"
         + "        switch (reader.selectName(OPTIONS)) {\n"
         + "          case 0: {\n"
-        + "            items = this.itemsAdapter.fromJson(reader);\n"
+        + "            item = itemAdapter().fromJson(reader);\n"
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            name = this.nameAdapter.fromJson(reader);\n"
+        + "            tags = tagsAdapter().fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 2: {\n"
+        + "            count = reader.nextInt();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -1850,35 +1716,1432 @@ public final class AutoValueMoshiExtensionTest {
         + "        }\n"
         + "      }\n"
         + "      reader.endObject();\n"
-        + "      return new AutoValue_Foo(items, name);\n"
+        + "      return new AutoValue_Foo(item, tags, count);\n"
         + "    }\n"
         + "    @Override\n"
         + "    public void toJson(JsonWriter writer, Foo<V> value) throws IOException {\n"
         + "      writer.beginObject();\n"
-        + "      writer.name(\"items\");\n"
-        + "      this.itemsAdapter.toJson(writer, value.items());\n"
-        + "      writer.name(\"name\");\n"
-        + "      this.nameAdapter.toJson(writer, value.name());\n"
+        + "      writer.name(\"item\");\n"
+        + "      itemAdapter().toJson(writer, value.item());\n"
+        + "      List<String> tags = value.tags();\n"
+        + "      if (tags != null) {\n"
+        + "        writer.name(\"tags\");\n"
+        + "        tagsAdapter().toJson(writer, tags);\n"
+        + "      }\n"
+        + "      writer.name(\"count\");\n"
+        + "      writer.value(value.count());\n"
         + "      writer.endObject();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public String toString() {\n"
         + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
         + "    }\n"
+        + "    private static Type[] resolveTypes(Type[] types) {\n"
+        + "      return new Type[] {Types.newParameterizedType(List.class, String.class)};\n"
+        + "    }\n"
         + "  }\n"
         + "}"
     );
 
     assertAbout(javaSource())
-        .that(source1)
+        .that(source)
         .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
         .compilesWithoutError()
         .and()
         .generatesSources(expected);
   }
 
-  @Test public void singleGeneric() {
-    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+  @Test public void inlinePropertiesDisabled() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.Nullable;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(inlineProperties = false)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract String a();\n"
+        + "  public abstract int b();\n"
+        + "  @Nullable public abstract Integer c();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.Nullable;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Integer;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(String a, int b, @Nullable Integer c) {\n"
+        + "    super(a, b, c);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"a\",\"b\",\"c\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private final JsonAdapter<String> aAdapter;\n"
+        + "    private final JsonAdapter<Integer> bAdapter;\n"
+        + "    private final JsonAdapter<Integer> cAdapter;\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "      this.aAdapter = moshi.adapter(String.class).nonNull();\n"
+        + "      this.bAdapter = moshi.adapter(int.class).nonNull();\n"
+        + "      this.cAdapter = moshi.adapter(Integer.class).nullSafe();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String a = null;\n"
+        + "      int b = 0;\n"
+        + "      Integer c = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            a = this.aAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            b = this.bAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 2: {\n"
+        + "            c = this.cAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Test(a, b, c);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"a\");\n"
+        + "      this.aAdapter.toJson(writer, value.a());\n"
+        + "      writer.name(\"b\");\n"
+        + "      this.bAdapter.toJson(writer, value.b());\n"
+        + "      Integer c = value.c();\n"
+        + "      if (c != null) {\n"
+        + "        writer.name(\"c\");\n"
+        + "        this.cAdapter.toJson(writer, c);\n"
+        + "      }\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(nullable, source))
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void reportUnknownFields() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(reportUnknownFields = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract String name();\n"
+        + "  public abstract int unknownFields();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.AdapterMetrics;\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(String name, int unknownFields) {\n"
+        + "    super(name, unknownFields);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"name\",\"unknownFields\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String name = null;\n"
+        + "      int unknownFields = 0;\n"
+        + "      int unknownFields_ = 0;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            name = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            unknownFields = reader.nextInt();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "            unknownFields_++;\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      if (unknownFields_ > 0) {\n"
+        + "        AdapterMetrics.get().onUnknownFieldsSkipped(Test.class, unknownFields_);\n"
+        + "      }\n"
+        + "      return new AutoValue_Test(name, unknownFields);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"name\");\n"
+        + "      writer.value(value.name());\n"
+        + "      writer.name(\"unknownFields\");\n"
+        + "      writer.value(value.unknownFields());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void reportMetrics() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import javax.annotation.Nullable;\n"
+        + "@MoshiAdapterOptions(reportMetrics = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  @Nullable public abstract String name();\n"
+        + "  public abstract int count();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.AdapterMetrics;\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import java.lang.System;\n"
+        + "import javax.annotation.Generated;\n"
+        + "import javax.annotation.Nullable;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(@Nullable String name, int count) {\n"
+        + "    super(name, count);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"name\",\"count\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      AdapterMetrics metrics = AdapterMetrics.get();\n"
+        + "      if (metrics == AdapterMetrics.NONE) {\n"
+        + "        return read(reader, metrics);\n"
+        + "      }\n"
+        + "      long start = System.nanoTime();\n"
+        + "      Test result = read(reader, metrics);\n"
+        + "      metrics.onRead(Test.class, System.nanoTime() - start);\n"
+        + "      return result;\n"
+        + "    }\n"
+        + "    private Test read(JsonReader reader, AdapterMetrics metrics) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String name = null;\n"
+        + "      int count = 0;\n"
+        + "      int unknownFields = 0;\n"
+        + "      int nulls = 0;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            if (metrics != AdapterMetrics.NONE && reader.peek() == JsonReader.Token.NULL) {\n"
+        + "              nulls++;\n"
+        + "            }\n"
+        + "            name = reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() : reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            if (metrics != AdapterMetrics.NONE && reader.peek() == JsonReader.Token.NULL) {\n"
+        + "              nulls++;\n"
+        + "            }\n"
+        + "            count = reader.nextInt();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "            unknownFields++;\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      if (unknownFields > 0) {\n"
+        + "        metrics.onUnknownFieldsSkipped(Test.class, unknownFields);\n"
+        + "      }\n"
+        + "      if (nulls > 0) {\n"
+        + "        metrics.onNullsRead(Test.class, nulls);\n"
+        + "      }\n"
+        + "      return new AutoValue_Test(name, count);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      AdapterMetrics metrics = AdapterMetrics.get();\n"
+        + "      if (metrics == AdapterMetrics.NONE) {\n"
+        + "        write(writer, value);\n"
+        + "        return;\n"
+        + "      }\n"
+        + "      long start = System.nanoTime();\n"
+        + "      write(writer, value);\n"
+        + "      metrics.onWritten(Test.class, System.nanoTime() - start);\n"
+        + "    }\n"
+        + "    private void write(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      String name = value.name();\n"
+        + "      if (name != null) {\n"
+        + "        writer.name(\"name\");\n"
+        + "        writer.value(name);\n"
+        + "      }\n"
+        + "      writer.name(\"count\");\n"
+        + "      writer.value(value.count());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void predictFieldOrder() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.Json;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(predictFieldOrder = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  @Json(name = \"first_name\") public abstract String firstName();\n"
+        + "  public abstract long index();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(String firstName, long index) {\n"
+        + "    super(firstName, index);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"first_name\",\"index\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final JsonReader.Options[] NAME_OPTIONS = new JsonReader.Options[] {"
+        + "JsonReaderOptions.of(NAMES[0]), JsonReaderOptions.of(NAMES[1])};\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String firstName = null;\n"
+        + "      long index = 0L;\n"
+        + "      int expectedIndex = 0;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        int index_;\n"
+        + "        if (expectedIndex < NAMES.length "
+        + "&& reader.selectName(NAME_OPTIONS[expectedIndex]) == 0) {\n"
+        + "          index_ = expectedIndex;\n"
+        + "        } else {\n"
+        + "          index_ = reader.selectName(OPTIONS);\n"
+        + "        }\n"
+        + "        if (index_ != -1) {\n"
+        + "          expectedIndex = index_ + 1;\n"
+        + "        }\n"
+        + "        switch (index_) {\n"
+        + "          case 0: {\n"
+        + "            firstName = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            index = reader.nextLong();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Test(firstName, index);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"first_name\");\n"
+        + "      writer.value(value.firstName());\n"
+        + "      writer.name(\"index\");\n"
+        + "      writer.value(value.index());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void bypassBuilder() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(bypassBuilder = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract String name();\n"
+        + "  public abstract int count();\n"
+        + "  public static Builder builder() {\n"
+        + "    return new AutoValue_Test.Builder().count(1);\n"
+        + "  }\n"
+        + "  @AutoValue.Builder public abstract static class Builder {\n"
+        + "    public abstract Builder name(String name);\n"
+        + "    public abstract Builder count(int count);\n"
+        + "    public abstract Test build();\n"
+        + "  }\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(String name, int count) {\n"
+        + "    super(name, count);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"name\",\"count\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String name = null;\n"
+        + "      int count = 0;\n"
+        + "      long present = 0L;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            name = reader.nextString();\n"
+        + "            present |= 0x1L;\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            count = reader.nextInt();\n"
+        + "            present |= 0x2L;\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      if (present == 0x3L) {\n"
+        + "        return new AutoValue_Test(name, count);\n"
+        + "      }\n"
+        + "      Test.Builder builder = Test.builder();\n"
+        + "      if ((present & 0x1L) != 0) builder.name(name);\n"
+        + "      if ((present & 0x2L) != 0) builder.count(count);\n"
+        + "      return builder.build();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"name\");\n"
+        + "      writer.value(value.name());\n"
+        + "      writer.name(\"count\");\n"
+        + "      writer.value(value.count());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void bypassBuilderWarnsWithCustomBuildMethod() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(bypassBuilder = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract String name();\n"
+        + "  @AutoValue.Builder public abstract static class Builder {\n"
+        + "    public abstract Builder name(String name);\n"
+        + "    abstract Test autoBuild();\n"
+        + "    public Test build() {\n"
+        + "      return autoBuild();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .withWarningContaining("Ignoring @MoshiAdapterOptions(bypassBuilder = true) because "
+            + "the build method isn't abstract.");
+  }
+
+  @Test public void bypassBuilderWarnsWithExternalAdapter() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@MoshiAdapterOptions(bypassBuilder = true)\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public abstract String name();\n"
+        + "  @AutoValue.Builder public abstract static class Builder {\n"
+        + "    public abstract Builder name(String name);\n"
+        + "    public abstract Test build();\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .withWarningContaining("Ignoring @MoshiAdapterOptions(bypassBuilder = true) because "
+            + "external adapters can't reach the AutoValue constructor.");
+  }
+
+  @Test public void linkNestedAdapters() {
+    JavaFileObject address = JavaFileObjects.forSourceString("test.Address", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@AutoValue public abstract class Address {\n"
+        + "  public static JsonAdapter<Address> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Address.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract String city();\n"
+        + "}"
+    );
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(linkNestedAdapters = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract String name();\n"
+        + "  public abstract Address address();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(String name, Address address) {\n"
+        + "    super(name, address);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"name\",\"address\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private final JsonAdapter<Address> addressAdapter;\n"
+        + "    private final AutoValue_Address.MoshiJsonAdapter addressLinkedAdapter;\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "      JsonAdapter<Address> addressAdapter = moshi.adapter(Address.class);\n"
+        + "      this.addressLinkedAdapter = addressAdapter instanceof AutoValue_Address.MoshiJsonAdapter"
+        + " ? (AutoValue_Address.MoshiJsonAdapter) addressAdapter : null;\n"
+        + "      this.addressAdapter = addressAdapter.nonNull();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String name = null;\n"
+        + "      Address address = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            name = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            address = this.addressLinkedAdapter != null && reader.peek() != JsonReader.Token.NULL"
+        + " ? this.addressLinkedAdapter.fromJson(reader) : this.addressAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Test(name, address);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"name\");\n"
+        + "      writer.value(value.name());\n"
+        + "      writer.name(\"address\");\n"
+        + "      if (this.addressLinkedAdapter != null) {\n"
+        + "        this.addressLinkedAdapter.toJson(writer, value.address());\n"
+        + "      } else {\n"
+        + "        this.addressAdapter.toJson(writer, value.address());\n"
+        + "      }\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(address, source))
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void inlineCollections() {
+    JavaFileObject item = JavaFileObjects.forSourceString("test.Item", ""
+        + "package test;\n"
+        + "public final class Item {\n"
+        + "}"
+    );
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.util.List;\n"
+        + "import java.util.Map;\n"
+        + "@MoshiAdapterOptions(inlineCollections = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract List<String> names();\n"
+        + "  public abstract List<Long> ids();\n"
+        + "  public abstract Map<String, Item> items();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonDataException;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Long;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import java.util.ArrayList;\n"
+        + "import java.util.Collections;\n"
+        + "import java.util.LinkedHashMap;\n"
+        + "import java.util.List;\n"
+        + "import java.util.Map;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(List<String> names, List<Long> ids, Map<String, Item> items) {\n"
+        + "    super(names, ids, items);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"names\",\"ids\",\"items\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private final JsonAdapter<Item> itemsElementAdapter;\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "      this.itemsElementAdapter = moshi.adapter(Item.class);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      List<String> names = null;\n"
+        + "      List<Long> ids = null;\n"
+        + "      Map<String, Item> items = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            names = readNames(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            ids = readIds(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 2: {\n"
+        + "            items = readItems(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Test(names, ids, items);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"names\");\n"
+        + "      writeNames(writer, value.names());\n"
+        + "      writer.name(\"ids\");\n"
+        + "      writeIds(writer, value.ids());\n"
+        + "      writer.name(\"items\");\n"
+        + "      writeItems(writer, value.items());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    private List<String> readNames(JsonReader reader) throws IOException {\n"
+        + "      List<String> values = new ArrayList<>();\n"
+        + "      reader.beginArray();\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        values.add(reader.peek() == JsonReader.Token.NULL ? reader.<String>nextNull() "
+        + ": reader.nextString());\n"
+        + "      }\n"
+        + "      reader.endArray();\n"
+        + "      return Collections.unmodifiableList(values);\n"
+        + "    }\n"
+        + "    private void writeNames(JsonWriter writer, List<String> value) throws IOException {\n"
+        + "      writer.beginArray();\n"
+        + "      for (String element : value) {\n"
+        + "        writer.value(element);\n"
+        + "      }\n"
+        + "      writer.endArray();\n"
+        + "    }\n"
+        + "    private List<Long> readIds(JsonReader reader) throws IOException {\n"
+        + "      List<Long> values = new ArrayList<>();\n"
+        + "      reader.beginArray();\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        values.add(reader.peek() == JsonReader.Token.NULL ? reader.<Long>nextNull() "
+        + ": Long.valueOf(reader.nextLong()));\n"
+        + "      }\n"
+        + "      reader.endArray();\n"
+        + "      return Collections.unmodifiableList(values);\n"
+        + "    }\n"
+        + "    private void writeIds(JsonWriter writer, List<Long> value) throws IOException {\n"
+        + "      writer.beginArray();\n"
+        + "      for (Long element : value) {\n"
+        + "        if (element == null) {\n"
+        + "          writer.nullValue();\n"
+        + "        } else {\n"
+        + "          writer.value(element.longValue());\n"
+        + "        }\n"
+        + "      }\n"
+        + "      writer.endArray();\n"
+        + "    }\n"
+        + "    private Map<String, Item> readItems(JsonReader reader) throws IOException {\n"
+        + "      Map<String, Item> values = new LinkedHashMap<>();\n"
+        + "      reader.beginObject();\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        String name = reader.nextName();\n"
+        + "        Item value = this.itemsElementAdapter.fromJson(reader);\n"
+        + "        Item replaced = values.put(name, value);\n"
+        + "        if (replaced != null) {\n"
+        + "          throw new JsonDataException(\"Map key '\" + name + \"' has multiple values at path \""
+        + " + reader.getPath() + \": \" + replaced + \" and \" + value);\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return Collections.unmodifiableMap(values);\n"
+        + "    }\n"
+        + "    private void writeItems(JsonWriter writer, Map<String, Item> value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      for (Map.Entry<String, Item> entry : value.entrySet()) {\n"
+        + "        String name = entry.getKey();\n"
+        + "        if (name == null) {\n"
+        + "          throw new JsonDataException(\"Map key is null at \" + writer.getPath());\n"
+        + "        }\n"
+        + "        writer.name(name);\n"
+        + "        this.itemsElementAdapter.toJson(writer, entry.getValue());\n"
+        + "      }\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(item, source))
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void inlineCollectionsRejectNullsInGuavaCollections() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.google.common.collect.ImmutableList;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@MoshiAdapterOptions(inlineCollections = true)\n"
+        + "@AutoValue public abstract class Test {\n"
+        + "  public static JsonAdapter<Test> jsonAdapter(Moshi moshi) {\n"
+        + "    return new AutoValue_Test.MoshiJsonAdapter(moshi);\n"
+        + "  }\n"
+        + "  public abstract ImmutableList<Long> ids();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Test", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.google.common.collect.ImmutableList;\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonDataException;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Long;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import java.util.ArrayList;\n"
+        + "import java.util.List;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Test extends $AutoValue_Test {\n"
+        + "  AutoValue_Test(ImmutableList<Long> ids) {\n"
+        + "    super(ids);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Test> {\n"
+        + "    private static final String[] NAMES = new String[] {\"ids\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Test fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      ImmutableList<Long> ids = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            ids = readIds(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Test(ids);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Test value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"ids\");\n"
+        + "      writeIds(writer, value.ids());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    private ImmutableList<Long> readIds(JsonReader reader) throws IOException {\n"
+        + "      List<Long> values = new ArrayList<>();\n"
+        + "      reader.beginArray();\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        if (reader.peek() == JsonReader.Token.NULL) {\n"
+        + "          throw new JsonDataException(\"Unexpected null element at path \" "
+        + "+ reader.getPath());\n"
+        + "        }\n"
+        + "        values.add(Long.valueOf(reader.nextLong()));\n"
+        + "      }\n"
+        + "      reader.endArray();\n"
+        + "      return ImmutableList.copyOf(values);\n"
+        + "    }\n"
+        + "    private void writeIds(JsonWriter writer, ImmutableList<Long> value) "
+        + "throws IOException {\n"
+        + "      writer.beginArray();\n"
+        + "      for (Long element : value) {\n"
+        + "        if (element == null) {\n"
+        + "          writer.nullValue();\n"
+        + "        } else {\n"
+        + "          writer.value(element.longValue());\n"
+        + "        }\n"
+        + "      }\n"
+        + "      writer.endArray();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Test\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void generatesNothingWithoutJsonAdapterMethod() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "@AutoValue public abstract class Foo {\n"
+        + "  public abstract String a();\n"
+        + "  public abstract String b();\n"
+        + "}\n"
+    );
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo",
+            "package test;\n"
+                + "\n"
+                + "import javax.annotation.Generated;\n"
+                + "\n"
+                + "@Generated(\"com.google.auto.value.processor.AutoValueProcessor\")\n"
+                + "final class AutoValue_Foo extends Foo {\n"
+                + "\n"
+                + "  private final String a;\n"
+                + "\n"
+                + "  private final String b;\n"
+                + "\n"
+                + "  AutoValue_Foo(\n"
+                + "      String a,\n"
+                + "      String b) {\n"
+                + "    if (a == null) {\n"
+                + "      throw new NullPointerException(\"Null a\");\n"
+                + "    }\n"
+                + "    this.a = a;\n"
+                + "    if (b == null) {\n"
+                + "      throw new NullPointerException(\"Null b\");\n"
+                + "    }\n"
+                + "    this.b = b;\n"
+                + "  }\n"
+                + "\n"
+                + "  @Override\n"
+                + "  public String a() {\n"
+                + "    return a;\n"
+                + "  }\n"
+                + "\n"
+                + "  @Override\n"
+                + "  public String b() {\n"
+                + "    return b;\n"
+                + "  }\n"
+                + "\n"
+                + "  @Override\n"
+                + "  public String toString() {\n"
+                + "    return \"Foo{\"\n"
+                + "        + \"a=\" + a + \", \"\n"
+                + "        + \"b=\" + b\n"
+                + "        + \"}\";\n"
+                + "  }\n"
+                + "\n"
+                + "  @Override\n"
+                + "  public boolean equals(Object o) {\n"
+                + "    if (o == this) {\n"
+                + "      return true;\n"
+                + "    }\n"
+                + "    if (o instanceof Foo) {\n"
+                + "      Foo that = (Foo) o;\n"
+                + "      return this.a.equals(that.a())\n"
+                + "          && this.b.equals(that.b());\n"
+                + "    }\n"
+                + "    return false;\n"
+                + "  }\n"
+                + "\n"
+                + "  @Override\n"
+                + "  public int hashCode() {\n"
+                + "    int h$ = 1;\n"
+                + "    h$ *= 1000003;\n"
+                + "    h$ ^= a.hashCode();\n"
+                + "    h$ *= 1000003;\n"
+                + "    h$ ^= b.hashCode();\n"
+                + "    return h$;\n"
+                + "  }\n"
+                + "\n"
+                + "}");
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .withWarningCount(2)
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void emitsWarningForWrongJsonAdapterTypeArgument() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@AutoValue public abstract class Foo {\n"
+        + "  public static JsonAdapter<Bar> jsonAdapter(Moshi moshi) {\n"
+        + "    return null;"
+        + "  }\n"
+        + "  public abstract String a();\n"
+        + "  public abstract boolean b();\n"
+        + "}"
+    );
+
+    JavaFileObject source2 = JavaFileObjects.forSourceString("test.Bar", ""
+        + "package test;\n"
+        + "public class Bar {\n"
+        + "}");
+
+    assertAbout(javaSources())
+        .that(ImmutableSet.of(source1, source2))
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .withWarningContaining("Found static method returning JsonAdapter<test.Bar> on "
+            + "test.Foo class. Skipping MoshiJsonAdapter generation.");
+  }
+
+  @Test public void emitsWarningForNoJsonAdapterTypeArgument() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@AutoValue public abstract class Foo {\n"
+        + "  public static JsonAdapter jsonAdapter(Moshi moshi) {\n"
+        + "    return null;"
+        + "  }\n"
+        + "  public abstract String a();\n"
+        + "  public abstract boolean b();\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source1)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .withWarningContaining("Found static method returning JsonAdapter with no type "
+            + "arguments, skipping MoshiJsonAdapter generation.");
+  }
+
+  @Test public void handlesConflictingVariableNames() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@AutoValue public abstract class Foo {\n"
+        + "  public static JsonAdapter<Foo> jsonAdapter(Moshi moshi) {\n"
+        + "    return null;"
+        + "  }\n"
+        + "  public abstract String reader();\n"
+        + "  public abstract String name();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Foo extends $AutoValue_Foo {\n"
+        + "  AutoValue_Foo(String reader, String name) {\n"
+        + "    super(reader, name);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter extends JsonAdapter<Foo> {\n"
+        + "    private static final String[] NAMES = new String[] {\"reader\",\"name\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    public MoshiJsonAdapter(Moshi moshi) {\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Foo fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String reader_ = null;\n"
+        + "      String name = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            reader_ = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            name = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Foo(reader_, name);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Foo value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"reader\");\n"
+        + "      writer.value(value.reader());\n"
+        + "      writer.name(\"name\");\n"
+        + "      writer.value(value.name());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source1)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void singleGenericAsParameter() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.List;\n"
+        + "@AutoValue public abstract class Foo<V> {\n"
+        + "  public static <T>JsonAdapter<Foo<T>> jsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "    return null;"
+        + "  }\n"
+        + "  public abstract List<V> items();\n"
+        + "  public abstract String name();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import com.squareup.moshi.Types;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.List;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Foo<V> extends $AutoValue_Foo<V> {\n"
+        + "  AutoValue_Foo(List<V> items, String name) {\n"
+        + "    super(items, name);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter<V> extends JsonAdapter<Foo<V>> {\n"
+        + "    private static final String[] NAMES = new String[] {\"items\",\"name\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
+        + "    private final JsonAdapter<List<V>> itemsAdapter;\n"
+        + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "      Type[] resolved = RESOLVED_TYPES.get(types);\n"
+        + "      if (resolved == null) {\n"
+        + "        resolved = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "      }\n"
+        + "      this.itemsAdapter = moshi.<List<V>>adapter(resolved[0]).nonNull();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Foo<V> fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      List<V> items = null;\n"
+        + "      String name = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            items = this.itemsAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            name = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Foo(items, name);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Foo<V> value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"items\");\n"
+        + "      this.itemsAdapter.toJson(writer, value.items());\n"
+        + "      writer.name(\"name\");\n"
+        + "      writer.value(value.name());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
+        + "    }\n"
+        + "    private static Type[] resolveTypes(Type[] types) {\n"
+        + "      return new Type[] {Types.newParameterizedType(List.class, types[0])};\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source1)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void singleGeneric() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
         + "package test;\n"
         + "import com.google.auto.value.AutoValue;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
@@ -1896,6 +3159,7 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -1918,12 +3182,10 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter<V> extends JsonAdapter<Foo<V>> {\n"
         + "    private static final String[] NAMES = new String[] {\"item\",\"name\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
         + "    private final JsonAdapter<V> itemAdapter;\n"
-        + "    private final JsonAdapter<String> nameAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
         + "      this.itemAdapter = moshi.<V>adapter(types[0]).nonNull();\n"
-        + "      this.nameAdapter = moshi.adapter(String.class).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo<V> fromJson(JsonReader reader) throws IOException {\n"
@@ -1937,7 +3199,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 1: {\n"
-        + "            name = this.nameAdapter.fromJson(reader);\n"
+        + "            name = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case -1: {\n"
@@ -1956,7 +3218,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      writer.name(\"item\");\n"
         + "      this.itemAdapter.toJson(writer, value.item());\n"
         + "      writer.name(\"name\");\n"
-        + "      this.nameAdapter.toJson(writer, value.name());\n"
+        + "      writer.value(value.name());\n"
         + "      writer.endObject();\n"
         + "    }\n"
         + "    @Override\n"
@@ -1996,6 +3258,8 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -2020,12 +3284,17 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter<V, T> extends JsonAdapter<Foo<V, T>> {\n"
         + "    private static final String[] NAMES = new String[] {\"items\",\"headers\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
         + "    private final JsonAdapter<List<V>> itemsAdapter;\n"
         + "    private final JsonAdapter<List<T>> headersAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
-        + "      this.itemsAdapter = moshi.<List<V>>adapter(Types.newParameterizedType(List.class, types[0])).nonNull();\n"
-        + "      this.headersAdapter = moshi.<List<T>>adapter(Types.newParameterizedType(List.class, types[1])).nonNull();\n"
+        + "      Type[] resolved = RESOLVED_TYPES.get(types);\n"
+        + "      if (resolved == null) {\n"
+        + "        resolved = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "      }\n"
+        + "      this.itemsAdapter = moshi.<List<V>>adapter(resolved[0]).nonNull();\n"
+        + "      this.headersAdapter = moshi.<List<T>>adapter(resolved[1]).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo<V, T> fromJson(JsonReader reader) throws IOException {\n"
@@ -2065,6 +3334,9 @@ public final class AutoValueMoshiExtensionTest {
         + "    public String toString() {\n"
         + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
         + "    }\n"
+        + "    private static Type[] resolveTypes(Type[] types) {\n"
+        + "      return new Type[] {Types.newParameterizedType(List.class, types[0]), Types.newParameterizedType(List.class, types[1])};\n"
+        + "    }\n"
         + "  }\n"
         + "}"
     );
@@ -2098,6 +3370,8 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -2122,12 +3396,17 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter<V, T> extends JsonAdapter<Foo<V, T>> {\n"
         + "    private static final String[] NAMES = new String[] {\"items\",\"headers\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
         + "    private final JsonAdapter<List<T>> itemsAdapter;\n"
         + "    private final JsonAdapter<List<V>> headersAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
-        + "      this.itemsAdapter = moshi.<List<T>>adapter(Types.newParameterizedType(List.class, types[1])).nonNull();\n"
-        + "      this.headersAdapter = moshi.<List<V>>adapter(Types.newParameterizedType(List.class, types[0])).nonNull();\n"
+        + "      Type[] resolved = RESOLVED_TYPES.get(types);\n"
+        + "      if (resolved == null) {\n"
+        + "        resolved = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "      }\n"
+        + "      this.itemsAdapter = moshi.<List<T>>adapter(resolved[0]).nonNull();\n"
+        + "      this.headersAdapter = moshi.<List<V>>adapter(resolved[1]).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo<V, T> fromJson(JsonReader reader) throws IOException {\n"
@@ -2167,6 +3446,9 @@ public final class AutoValueMoshiExtensionTest {
         + "    public String toString() {\n"
         + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
         + "    }\n"
+        + "    private static Type[] resolveTypes(Type[] types) {\n"
+        + "      return new Type[] {Types.newParameterizedType(List.class, types[1]), Types.newParameterizedType(List.class, types[0])};\n"
+        + "    }\n"
         + "  }\n"
         + "}"
     );
@@ -2197,6 +3479,8 @@ public final class AutoValueMoshiExtensionTest {
 
     JavaFileObject expected = JavaFileObjects.forSourceString("test/FooJsonAdapter", "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -2214,15 +3498,21 @@ public final class AutoValueMoshiExtensionTest {
         + "public final class FooJsonAdapter<V, T> extends JsonAdapter<Foo<V, T>> {\n"
         + "  private static final String[] NAMES = new String[] {\"items\",\"headers\"};\n"
         + "\n"
-        + "  private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "  private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "\n"
+        + "  private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
         + "\n"
         + "  private final JsonAdapter<List<T>> itemsAdapter;\n"
         + "\n"
         + "  private final JsonAdapter<List<V>> headersAdapter;\n"
         + "\n"
         + "  public FooJsonAdapter(Moshi moshi, Type[] types) {\n"
-        + "    this.itemsAdapter = moshi.<List<T>>adapter(Types.newParameterizedType(List.class, types[1])).nonNull();\n"
-        + "    this.headersAdapter = moshi.<List<V>>adapter(Types.newParameterizedType(List.class, types[0])).nonNull();\n"
+        + "    Type[] resolved = RESOLVED_TYPES.get(types);\n"
+        + "    if (resolved == null) {\n"
+        + "      resolved = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "    }\n"
+        + "    this.itemsAdapter = moshi.<List<T>>adapter(resolved[0]).nonNull();\n"
+        + "    this.headersAdapter = moshi.<List<V>>adapter(resolved[1]).nonNull();\n"
         + "  }\n"
         + "\n"
         + "  @Override\n"
@@ -2264,6 +3554,10 @@ public final class AutoValueMoshiExtensionTest {
         + "  public String toString() {\n"
         + "    return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
         + "  }\n"
+        + "\n"
+        + "  private static Type[] resolveTypes(Type[] types) {\n"
+        + "    return new Type[] {Types.newParameterizedType(List.class, types[1]), Types.newParameterizedType(List.class, types[0])};\n"
+        + "  }\n"
         + "}"
     );
 
@@ -2336,6 +3630,8 @@ public final class AutoValueMoshiExtensionTest {
     JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
         + "package test;\n"
         + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
         + "import com.squareup.moshi.JsonAdapter;\n"
         + "import com.squareup.moshi.JsonReader;\n"
         + "import com.squareup.moshi.JsonWriter;\n"
@@ -2361,17 +3657,20 @@ public final class AutoValueMoshiExtensionTest {
         + "\n"
         + "  public static final class MoshiJsonAdapter<T, U> extends JsonAdapter<Foo<T, U>> {\n"
         + "    private static final String[] NAMES = new String[] {\"genericItem\",\"listWithQualifier\",\"normalProperty\",\"map\"};\n"
-        + "    private static final JsonReader.Options OPTIONS = JsonReader.Options.of(NAMES);\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
         + "    @FooPrefix\n"
         + "    private final JsonAdapter<T> genericItemAdapter;\n"
         + "    private final JsonAdapter<List<T>> listWithQualifierAdapter;\n"
-        + "    private final JsonAdapter<String> normalPropertyAdapter;\n"
         + "    private final JsonAdapter<Map<T, U>> mapAdapter;\n"
         + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "      Type[] resolved = RESOLVED_TYPES.get(types);\n"
+        + "      if (resolved == null) {\n"
+        + "        resolved = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "      }\n"
         + "      this.genericItemAdapter = moshi.<T>adapter(types[0], Types.getFieldJsonQualifierAnnotations(getClass(), \"genericItemAdapter\")).nonNull();\n"
-        + "      this.listWithQualifierAdapter = moshi.<List<T>>adapter(Types.newParameterizedType(List.class, types[0])).nonNull();\n"
-        + "      this.normalPropertyAdapter = moshi.adapter(String.class).nonNull();\n"
-        + "      this.mapAdapter = moshi.<Map<T, U>>adapter(Types.newParameterizedType(Map.class, types[0], types[1])).nonNull();\n"
+        + "      this.listWithQualifierAdapter = moshi.<List<T>>adapter(resolved[0]).nonNull();\n"
+        + "      this.mapAdapter = moshi.<Map<T, U>>adapter(resolved[1]).nonNull();\n"
         + "    }\n"
         + "    @Override\n"
         + "    public Foo<T, U> fromJson(JsonReader reader) throws IOException {\n"
@@ -2391,7 +3690,7 @@ public final class AutoValueMoshiExtensionTest {
         + "            break;\n"
         + "          }\n"
         + "          case 2: {\n"
-        + "            normalProperty = this.normalPropertyAdapter.fromJson(reader);\n"
+        + "            normalProperty = reader.nextString();\n"
         + "            break;\n"
         + "          }\n"
         + "          case 3: {\n"
@@ -2416,7 +3715,7 @@ public final class AutoValueMoshiExtensionTest {
         + "      writer.name(\"listWithQualifier\");\n"
         + "      this.listWithQualifierAdapter.toJson(writer, value.listWithQualifier());\n"
         + "      writer.name(\"normalProperty\");\n"
-        + "      this.normalPropertyAdapter.toJson(writer, value.normalProperty());\n"
+        + "      writer.value(value.normalProperty());\n"
         + "      writer.name(\"map\");\n"
         + "      this.mapAdapter.toJson(writer, value.map());\n"
         + "      writer.endObject();\n"
@@ -2425,6 +3724,9 @@ public final class AutoValueMoshiExtensionTest {
         + "    public String toString() {\n"
         + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
         + "    }\n"
+        + "    private static Type[] resolveTypes(Type[] types) {\n"
+        + "      return new Type[] {Types.newParameterizedType(List.class, types[0]), Types.newParameterizedType(Map.class, types[0], types[1])};\n"
+        + "    }\n"
         + "  }\n"
         + "}"
     );
@@ -2448,6 +3750,190 @@ public final class AutoValueMoshiExtensionTest {
         .generatesFiles(expectedProguard);
   }
 
+  @Test public void specializedAdapter() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiSpecialization;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.List;\n"
+        + "@MoshiSpecialization(String.class)\n"
+        + "@AutoValue public abstract class Foo<V> {\n"
+        + "  public static <T> JsonAdapter<Foo<T>> jsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "    return new AutoValue_Foo.MoshiJsonAdapter(moshi, types);\n"
+        + "  }\n"
+        + "  public abstract V item();\n"
+        + "  public abstract List<V> items();\n"
+        + "}"
+    );
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test/AutoValue_Foo", "\n"
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.ryanharter.auto.value.moshi.ResolvedTypeCache;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import com.squareup.moshi.Types;\n"
+        + "import java.io.IOException;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.StringBuilder;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.List;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiExtension\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "final class AutoValue_Foo<V> extends $AutoValue_Foo<V> {\n"
+        + "  AutoValue_Foo(V item, List<V> items) {\n"
+        + "    super(item, items);\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter<V> extends JsonAdapter<Foo<V>> {\n"
+        + "    private static final String[] NAMES = new String[] {\"item\",\"items\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private static final ResolvedTypeCache RESOLVED_TYPES = new ResolvedTypeCache(64);\n"
+        + "    private final JsonAdapter<V> itemAdapter;\n"
+        + "    private final JsonAdapter<List<V>> itemsAdapter;\n"
+        + "    public MoshiJsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "      Type[] resolved = RESOLVED_TYPES.get(types);\n"
+        + "      if (resolved == null) {\n"
+        + "        resolved = RESOLVED_TYPES.put(types, resolveTypes(types));\n"
+        + "      }\n"
+        + "      this.itemAdapter = moshi.<V>adapter(types[0]).nonNull();\n"
+        + "      this.itemsAdapter = moshi.<List<V>>adapter(resolved[0]).nonNull();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Foo<V> fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      V item = null;\n"
+        + "      List<V> items = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            item = this.itemAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            items = this.itemsAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Foo(item, items);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Foo<V> value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"item\");\n"
+        + "      this.itemAdapter.toJson(writer, value.item());\n"
+        + "      writer.name(\"items\");\n"
+        + "      this.itemsAdapter.toJson(writer, value.items());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
+        + "    }\n"
+        + "    private static Type[] resolveTypes(Type[] types) {\n"
+        + "      return new Type[] {Types.newParameterizedType(List.class, types[0])};\n"
+        + "    }\n"
+        + "  }\n"
+        + "\n"
+        + "  public static final class MoshiJsonAdapter_String extends JsonAdapter<Foo<String>> {\n"
+        + "    private static final String[] NAMES = new String[] {\"item\",\"items\"};\n"
+        + "    private static final JsonReader.Options OPTIONS = JsonReaderOptions.of(NAMES);\n"
+        + "    private final JsonAdapter<List<String>> itemsAdapter;\n"
+        + "    public MoshiJsonAdapter_String(Moshi moshi) {\n"
+        + "      this.itemsAdapter = moshi.<List<String>>adapter(Types.newParameterizedType(List.class, String.class)).nonNull();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public Foo<String> fromJson(JsonReader reader) throws IOException {\n"
+        + "      reader.beginObject();\n"
+        + "      String item = null;\n"
+        + "      List<String> items = null;\n"
+        + "      while (reader.hasNext()) {\n"
+        + "        switch (reader.selectName(OPTIONS)) {\n"
+        + "          case 0: {\n"
+        + "            item = reader.nextString();\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case 1: {\n"
+        + "            items = this.itemsAdapter.fromJson(reader);\n"
+        + "            break;\n"
+        + "          }\n"
+        + "          case -1: {\n"
+        + "            // Unknown name, skip it\n"
+        + "            reader.skipName();\n"
+        + "            reader.skipValue();\n"
+        + "          }\n"
+        + "        }\n"
+        + "      }\n"
+        + "      reader.endObject();\n"
+        + "      return new AutoValue_Foo(item, items);\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public void toJson(JsonWriter writer, Foo<String> value) throws IOException {\n"
+        + "      writer.beginObject();\n"
+        + "      writer.name(\"item\");\n"
+        + "      writer.value(value.item());\n"
+        + "      writer.name(\"items\");\n"
+        + "      this.itemsAdapter.toJson(writer, value.items());\n"
+        + "      writer.endObject();\n"
+        + "    }\n"
+        + "    @Override\n"
+        + "    public String toString() {\n"
+        + "      return new StringBuilder().append(\"JsonAdapter(\").append(\"Foo\").append(\")\").toString();\n"
+        + "    }\n"
+        + "  }\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void specializationRequiresTypeArgumentPerParameter() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiSpecialization;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "@MoshiSpecialization({String.class, String.class})\n"
+        + "@AutoValue public abstract class Foo<V> {\n"
+        + "  public static <T> JsonAdapter<Foo<T>> jsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "    return new AutoValue_Foo.MoshiJsonAdapter(moshi, types);\n"
+        + "  }\n"
+        + "  public abstract V item();\n"
+        + "}"
+    );
+
+    assertAbout(javaSource())
+        .that(source)
+        .processedWith(new AutoValueProcessor(newArrayList(new AutoValueMoshiExtension())))
+        .failsToCompile()
+        .withErrorContaining("@MoshiSpecialization needs 1 type arguments for test.Foo, found 2.");
+  }
+
   @Test public void transientRequiredPropertyShouldFail() {
     JavaFileObject source = JavaFileObjects.forSourceString("test.Test", ""
         + "package test;\n"
@@ -0,0 +1,197 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Arrays;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
+
+public final class AutoValueMoshiPolymorphicProcessorTest {
+  private final JavaFileObject click = JavaFileObjects.forSourceString("test.Click", ""
+      + "package test;\n"
+      + "public final class Click extends Event {\n"
+      + "}");
+  private final JavaFileObject view = JavaFileObjects.forSourceString("test.View", ""
+      + "package test;\n"
+      + "public final class View extends Event {\n"
+      + "}");
+
+  @Test public void generatesPolymorphicAdapter() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Event", ""
+        + "package test;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiPolymorphic;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@MoshiPolymorphic(labelKey = \"type\", subtypes = {\n"
+        + "    @MoshiPolymorphic.Subtype(type = Click.class, label = \"click\"),\n"
+        + "    @MoshiPolymorphic.Subtype(type = View.class, label = \"view\")\n"
+        + "})\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "public abstract class Event {\n"
+        + "}");
+
+    JavaFileObject expected = JavaFileObjects.forSourceString("test.EventJsonAdapter", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.JsonReaderOptions;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonDataException;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.io.IOException;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.AutoValueMoshiPolymorphicProcessor\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "public final class EventJsonAdapter extends JsonAdapter<Event> {\n"
+        + "  private static final JsonReader.Options LABEL_KEY_OPTIONS = "
+        + "JsonReaderOptions.of(\"type\");\n"
+        + "  private static final String[] LABELS = new String[] {\"click\", \"view\"};\n"
+        + "  private static final JsonReader.Options LABEL_OPTIONS = JsonReaderOptions.of(LABELS);\n"
+        + "  private final JsonAdapter<Click> clickAdapter;\n"
+        + "  private final JsonAdapter<View> viewAdapter;\n"
+        + "\n"
+        + "  public EventJsonAdapter(Moshi moshi) {\n"
+        + "    this.clickAdapter = moshi.adapter(Click.class);\n"
+        + "    this.viewAdapter = moshi.adapter(View.class);\n"
+        + "  }\n"
+        + "\n"
+        + "  @Override\n"
+        + "  public Event fromJson(JsonReader reader) throws IOException {\n"
+        + "    int label;\n"
+        + "    JsonReader peeked = reader.peekJson();\n"
+        + "    peeked.setFailOnUnknown(false);\n"
+        + "    try {\n"
+        + "      label = selectLabel(peeked);\n"
+        + "    } finally {\n"
+        + "      peeked.close();\n"
+        + "    }\n"
+        + "    switch (label) {\n"
+        + "      case 0: {\n"
+        + "        return this.clickAdapter.fromJson(reader);\n"
+        + "      }\n"
+        + "      case 1: {\n"
+        + "        return this.viewAdapter.fromJson(reader);\n"
+        + "      }\n"
+        + "      default: {\n"
+        + "        throw new AssertionError();\n"
+        + "      }\n"
+        + "    }\n"
+        + "  }\n"
+        + "\n"
+        + "  @Override\n"
+        + "  public void toJson(JsonWriter writer, Event value) throws IOException {\n"
+        + "    if (value instanceof Click) {\n"
+        + "      write(writer, LABELS[0], this.clickAdapter, (Click) value);\n"
+        + "    } else if (value instanceof View) {\n"
+        + "      write(writer, LABELS[1], this.viewAdapter, (View) value);\n"
+        + "    } else {\n"
+        + "      throw new IllegalArgumentException(\"Expected one of [test.Click, test.View] but "
+        + "found \" + value + \", a \" + value.getClass() + \". Register this subtype.\");\n"
+        + "    }\n"
+        + "  }\n"
+        + "\n"
+        + "  @Override\n"
+        + "  public String toString() {\n"
+        + "    return new StringBuilder().append(\"JsonAdapter(\").append(\"Event\").append(\")\")"
+        + ".toString();\n"
+        + "  }\n"
+        + "\n"
+        + "  private static int selectLabel(JsonReader reader) throws IOException {\n"
+        + "    reader.beginObject();\n"
+        + "    while (reader.hasNext()) {\n"
+        + "      if (reader.selectName(LABEL_KEY_OPTIONS) == -1) {\n"
+        + "        reader.skipName();\n"
+        + "        reader.skipValue();\n"
+        + "        continue;\n"
+        + "      }\n"
+        + "      int label = reader.selectString(LABEL_OPTIONS);\n"
+        + "      if (label == -1) {\n"
+        + "        throw new JsonDataException(\"Expected one of [click, view] for key 'type' but "
+        + "found '\" + reader.nextString() + \"'. Register a subtype for this label.\");\n"
+        + "      }\n"
+        + "      return label;\n"
+        + "    }\n"
+        + "    throw new JsonDataException(\"Missing label for type\");\n"
+        + "  }\n"
+        + "\n"
+        + "  private static <T> void write(JsonWriter writer, String label, JsonAdapter<T> adapter,\n"
+        + "      T value) throws IOException {\n"
+        + "    writer.beginObject();\n"
+        + "    writer.name(\"type\").value(label);\n"
+        + "    int flattenToken = writer.beginFlatten();\n"
+        + "    adapter.toJson(writer, value);\n"
+        + "    writer.endFlatten(flattenToken);\n"
+        + "    writer.endObject();\n"
+        + "  }\n"
+        + "}");
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(source, click, view))
+        .processedWith(new AutoValueMoshiPolymorphicProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void labelsMustBeUnique() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Event", ""
+        + "package test;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiPolymorphic;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@MoshiPolymorphic(labelKey = \"type\", subtypes = {\n"
+        + "    @MoshiPolymorphic.Subtype(type = Click.class, label = \"event\"),\n"
+        + "    @MoshiPolymorphic.Subtype(type = View.class, label = \"event\")\n"
+        + "})\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "public abstract class Event {\n"
+        + "}");
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(source, click, view))
+        .processedWith(new AutoValueMoshiPolymorphicProcessor())
+        .failsToCompile()
+        .withErrorContaining("Label \"event\" is used by both test.Click and test.View.");
+  }
+
+  @Test public void requiresJsonClassAnnotation() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Event", ""
+        + "package test;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiPolymorphic;\n"
+        + "@MoshiPolymorphic(labelKey = \"type\", subtypes = {\n"
+        + "    @MoshiPolymorphic.Subtype(type = Click.class, label = \"click\")\n"
+        + "})\n"
+        + "public abstract class Event {\n"
+        + "}");
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(source, click, view))
+        .processedWith(new AutoValueMoshiPolymorphicProcessor())
+        .failsToCompile()
+        .withErrorContaining("@MoshiPolymorphic types must be annotated with "
+            + "@JsonClass(generateAdapter = true, generator = \"avm\").");
+  }
+
+  @Test public void subtypesMustExtendTheAnnotatedType() {
+    JavaFileObject source = JavaFileObjects.forSourceString("test.Event", ""
+        + "package test;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiPolymorphic;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@MoshiPolymorphic(labelKey = \"type\", subtypes = {\n"
+        + "    @MoshiPolymorphic.Subtype(type = String.class, label = \"string\")\n"
+        + "})\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "public abstract class Event {\n"
+        + "}");
+
+    assertAbout(javaSources())
+        .that(Arrays.asList(source, click, view))
+        .processedWith(new AutoValueMoshiPolymorphicProcessor())
+        .failsToCompile()
+        .withErrorContaining("java.lang.String is not a subtype of test.Event.");
+  }
+}
@@ -1,15 +1,19 @@
 package com.ryanharter.auto.value.moshi.factory;
 
 import com.google.auto.common.GeneratedAnnotationSpecs;
+import com.google.auto.common.MoreTypes;
 import com.google.auto.common.Visibility;
 import com.google.auto.service.AutoService;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableSet;
+import com.ryanharter.auto.value.moshi.AdapterRegistries;
 import com.ryanharter.auto.value.moshi.AutoValueMoshiExtension;
 import com.ryanharter.auto.value.moshi.MoshiAdapterFactory;
+import com.ryanharter.auto.value.moshi.MoshiAdapterRegistry;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
@@ -20,10 +24,18 @@ import com.squareup.javapoet.WildcardTypeName;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 import java.io.IOException;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -39,6 +51,8 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 import net.ltgt.gradle.incap.IncrementalAnnotationProcessor;
 
 import static com.google.auto.common.MoreElements.getPackage;
@@ -98,18 +112,28 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
       return false;
     }
     Set<? extends Element> autoValueElements = roundEnv.getElementsAnnotatedWith(AutoValue.class);
-    List<TypeElement> elements = roundEnv.getElementsAnnotatedWith(AutoValue.class)
+    List<TypeElement> elements = autoValueElements
         .stream()
         .map(e -> (TypeElement) e)
-        .filter(e ->  AutoValueMoshiExtension.isApplicable(e, processingEnv.getMessager()))
-        .sorted((o1, o2) -> {
-          final String o1Name = classNameOf(o1);
-          final String o2Name = classNameOf(o2);
-          return o1Name.compareTo(o2Name);
-        })
+        .filter(e -> AutoValueMoshiExtension.isApplicable(e, processingEnv.getMessager()))
+        .sorted(Comparator.comparing(AutoValueMoshiAdapterFactoryProcessor::classNameOf))
         .collect(toList());
+    // Look up each type's adapter once per round, every factory selects from this index
+    Map<TypeElement, AdapterSource> adapterSources = new LinkedHashMap<>();
+    for (TypeElement element : elements) {
+      ExecutableElement adapterMethod = getJsonAdapterMethod(element);
+      ClassName externalAdapter = AutoValueMoshiExtension.externalAdapterName(element);
+      if (adapterMethod != null) {
+        adapterSources.put(element, AdapterSource.forMethod(element, adapterMethod));
+      } else if (externalAdapter != null) {
+        adapterSources.put(element, AdapterSource.forExternalAdapter(element, externalAdapter));
+      }
+    }
 
-    if (elements.isEmpty()) {
+    // Aggregating factories can provide adapters from other modules without any of their own
+    boolean aggregates = adapterFactories.stream()
+        .anyMatch(e -> e.getAnnotation(MoshiAdapterFactory.class).aggregate());
+    if (elements.isEmpty() && !aggregates) {
       Element reportableElement = adapterFactories.iterator().next();
       if (!autoValueElements.isEmpty()) {
         processingEnv.getMessager().printMessage(ERROR,
@@ -130,6 +154,8 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
       return false;
     }
 
+    List<ClassName> registries = new ArrayList<>();
+    List<Element> registryOrigins = new ArrayList<>();
     for (Element element : adapterFactories) {
       if (!element.getModifiers().contains(ABSTRACT)) {
         error(element, "Must be abstract!");
@@ -143,40 +169,12 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
       PackageElement packageElement = packageElementOf(type);
       String packageName = packageElement.getQualifiedName().toString();
 
-      List<TypeElement> applicableElements = elements.stream()
-          .filter(e -> {
-            Visibility typeVisibility = Visibility.ofElement(e);
-            switch (typeVisibility) {
-              case PRIVATE:
-                return false;
-              case DEFAULT:
-              case PROTECTED:
-                //noinspection UnstableApiUsage
-                if (!getPackage(e).equals(packageElement)) {
-                  return false;
-                }
-                break;
-            }
-            // If we got here, the class is visible. Now check the jsonAdapter method
-            ExecutableElement adapterMethod = getJsonAdapterMethod(e);
-            if (adapterMethod == null) {
-              return false;
-            }
-            Visibility methodVisibility = Visibility.ofElement(adapterMethod);
-            switch (methodVisibility) {
-              case PRIVATE:
-                return false;
-              case DEFAULT:
-              case PROTECTED:
-                //noinspection UnstableApiUsage
-                if (!getPackage(adapterMethod).equals(packageElement)) {
-                  return false;
-                }
-                break;
-            }
-            return true;
-          })
-          .collect(toList());
+      Map<TypeElement, AdapterSource> applicableElements = new LinkedHashMap<>();
+      adapterSources.forEach((e, source) -> {
+        if (isVisible(e, packageElement) && isVisible(source.declaration, packageElement)) {
+          applicableElements.put(e, source.visibleFrom(packageElement));
+        }
+      });
 
       MoshiAdapterFactory annotation = element.getAnnotation(MoshiAdapterFactory.class);
       boolean requestNullSafeAdapters = annotation.nullSafe();
@@ -185,7 +183,8 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
           applicableElements,
           packageName,
           adapterName,
-          requestNullSafeAdapters);
+          requestNullSafeAdapters,
+          annotation.aggregate());
       JavaFile file = JavaFile.builder(packageName, jsonAdapterFactory).build();
       try {
         file.writeTo(processingEnv.getFiler());
@@ -194,16 +193,106 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
             .printMessage(ERROR,
                 "Failed to write JsonAdapter.Factory: " + e.getLocalizedMessage());
       }
+
+      if (annotation.registry()) {
+        ClassName registryName =
+            ClassName.get(packageName, "AutoValueMoshi_" + adapterName + "Registry");
+        TypeSpec registry = createRegistry(type, registryName, applicableElements,
+            requestNullSafeAdapters);
+        try {
+          JavaFile.builder(packageName, registry).build().writeTo(processingEnv.getFiler());
+          registries.add(registryName);
+          registryOrigins.add(type);
+          registryOrigins.addAll(applicableElements.keySet());
+        } catch (IOException e) {
+          processingEnv.getMessager()
+              .printMessage(ERROR,
+                  "Failed to write MoshiAdapterRegistry: " + e.getLocalizedMessage());
+        }
+      }
+    }
+
+    if (!registries.isEmpty()) {
+      writeRegistryServices(registries, registryOrigins);
     }
 
     return false;
   }
 
+  /** Lists {@code registries} as services, so {@link AdapterRegistries} can find them. */
+  private void writeRegistryServices(List<ClassName> registries,
+      List<Element> originatingElements) {
+    String resourceName = "META-INF/services/" + MoshiAdapterRegistry.class.getName();
+    try {
+      FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+          "", resourceName, originatingElements.toArray(new Element[0]));
+      try (Writer writer = resource.openWriter()) {
+        for (ClassName registry : registries) {
+          writer.write(registry.reflectionName());
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager()
+          .printMessage(ERROR, "Failed to write " + resourceName + ": " + e.getLocalizedMessage());
+    }
+  }
+
+  private TypeSpec createRegistry(TypeElement sourceElement,
+      ClassName registryName,
+      Map<TypeElement, AdapterSource> elements,
+      boolean requestNullSafeAdapters) {
+    // Loaded through ServiceLoader, so it must be public regardless of the factory
+    TypeSpec.Builder registry = TypeSpec.classBuilder(registryName)
+        .addModifiers(PUBLIC, FINAL)
+        .addSuperinterface(MoshiAdapterRegistry.class)
+        .addOriginatingElement(sourceElement);
+
+    GeneratedAnnotationSpecs.generatedAnnotationSpec(
+        processingEnv.getElementUtils(),
+        processingEnv.getSourceVersion(),
+        AutoValueMoshiAdapterFactoryProcessor.class,
+        AutoValueMoshiExtension.GENERATED_COMMENTS
+    ).ifPresent(registry::addAnnotation);
+
+    TypeName typeNamesType =
+        ParameterizedTypeName.get(ClassName.get(Set.class), TypeName.get(String.class));
+    CodeBlock names = elements.keySet().stream()
+        .map(e -> CodeBlock.of("$S", rawClassName(e).reflectionName()))
+        .collect(CodeBlock.joining(", "));
+    registry.addField(FieldSpec.builder(typeNamesType, "TYPE_NAMES", PRIVATE, STATIC, FINAL)
+        .initializer("$T.unmodifiableSet(new $T<>($T.asList($L)))",
+            Collections.class, HashSet.class, Arrays.class, names)
+        .build());
+    registry.addMethod(MethodSpec.methodBuilder("typeNames")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(typeNamesType)
+        .addStatement("return TYPE_NAMES")
+        .build());
+
+    ParameterSpec typeName = ParameterSpec.builder(String.class, "typeName").build();
+    CodeBlock.Builder dispatch = CodeBlock.builder()
+        .beginControlFlow("switch ($N)", typeName);
+    addCases(dispatch, registry, elements, requestNullSafeAdapters, null);
+    dispatch.endControlFlow();
+    registry.addMethod(MethodSpec.methodBuilder("create")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameters(ImmutableSet.of(typeName, TYPE_SPEC, MOSHI_SPEC))
+        .returns(FACTORY_RETURN_TYPE_NAME)
+        .addCode(dispatch.build())
+        .addStatement("return null")
+        .build());
+    return registry.build();
+  }
+
   private TypeSpec createJsonAdapterFactory(TypeElement sourceElement,
-      List<TypeElement> elements,
+      Map<TypeElement, AdapterSource> elements,
       String packageName,
       String factoryName,
-      boolean requestNullSafeAdapters) {
+      boolean requestNullSafeAdapters,
+      boolean aggregate) {
     TypeSpec.Builder factory =
         TypeSpec.classBuilder(ClassName.get(packageName, "AutoValueMoshi_" + factoryName));
     factory.addOriginatingElement(sourceElement);
@@ -230,12 +319,6 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
         .addParameters(ImmutableSet.of(type, annotations, moshi))
         .returns(FACTORY_RETURN_TYPE_NAME);
 
-    CodeBlock.Builder classes = null;
-    CodeBlock.Builder generics = null;
-
-    int numGenerics = 0;
-    int numClasses = 0;
-
     // Avoid providing an adapter for an annotated type.
     create.addStatement("if (!$N.isEmpty()) return null", annotations)
         .addStatement("$T rawType = $T.getRawType($N)",
@@ -244,84 +327,226 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
             com.squareup.moshi.Types.class,
             type);
 
-    for (Element element : elements) {
-      factory.addOriginatingElement(element);
+    FieldSpec registries = null;
+    if (aggregate) {
+      registries = FieldSpec.builder(
+          ParameterizedTypeName.get(ClassName.get(Map.class), TypeName.get(String.class),
+              TypeName.get(MoshiAdapterRegistry.class)),
+          "registries", PRIVATE, FINAL)
+          .initializer("$T.load(getClass().getClassLoader())", AdapterRegistries.class)
+          .build();
+      factory.addField(registries);
+    }
+
+    // Dispatch on the exact class name, walking up the superclass chain so subclasses (like the
+    // generated AutoValue_ classes) still resolve to their AutoValue type like isAssignableFrom.
+    CodeBlock.Builder dispatch = CodeBlock.builder().beginControlFlow(
+        "for ($T c = rawType; c != null && c != $T.class; c = c.getSuperclass())",
+        ParameterizedTypeName.get(ClassName.get(Class.class),
+            WildcardTypeName.subtypeOf(Object.class)),
+        Object.class);
+    if (!elements.isEmpty()) {
+      dispatch.beginControlFlow("switch (c.getName())");
+      addCases(dispatch, factory, elements, requestNullSafeAdapters);
+      dispatch.endControlFlow();
+    }
+    if (registries != null) {
+      // Types from other modules are provided by the registry listing their name
+      dispatch.addStatement("$T registry = $N.get(c.getName())",
+          MoshiAdapterRegistry.class, registries);
+      dispatch.beginControlFlow("if (registry != null)");
+      dispatch.addStatement("return registry.create(c.getName(), $N, $N)", type, moshi);
+      dispatch.endControlFlow();
+    }
+    dispatch.endControlFlow();
+    create.addCode(dispatch.build());
+
+    create.addStatement("return null");
+    factory.addMethod(create.build());
+    return factory.build();
+  }
+
+  /**
+   * Adds a switch case returning the adapter of each of {@code elements} to {@code dispatch},
+   * registering them as originating elements of {@code type}.
+   */
+  private void addCases(CodeBlock.Builder dispatch, TypeSpec.Builder type,
+      Map<TypeElement, AdapterSource> elements, boolean requestNullSafeAdapters) {
+    ParameterSpec moshi = MOSHI_SPEC;
+    for (Map.Entry<TypeElement, AdapterSource> entry : elements.entrySet()) {
+      TypeElement element = entry.getKey();
+      AdapterSource source = entry.getValue();
+      type.addOriginatingElement(element);
       TypeName elementTypeName = TypeName.get(element.asType());
 
       if (elementTypeName instanceof ParameterizedTypeName) {
-        if (generics == null) {
-          generics = CodeBlock.builder()
-              .beginControlFlow("if ($N instanceof $T)", type, ParameterizedType.class);
-        }
-
-        addControlFlowGeneric(generics,
-            elementTypeName,
-            element,
-            numGenerics,
-            requestNullSafeAdapters);
-        numGenerics++;
+        addCaseGeneric(dispatch, elementTypeName, source, requestNullSafeAdapters);
       } else {
-        if (classes == null) {
-          classes = CodeBlock.builder();
-        }
-
-        addControlFlow(classes, elementTypeName, numClasses);
-        numClasses++;
+        addCase(dispatch, (ClassName) elementTypeName);
 
-        ExecutableElement jsonAdapterMethod = getJsonAdapterMethod(element);
-        CodeBlock moshiArgBlock = jsonAdapterMethod.getParameters().size() == 0
+        CodeBlock moshiArgBlock = source.parameterCount == 0
             ? CodeBlock.of("")
             : CodeBlock.of("$N", moshi);
-        String returnStatement =
-            requestNullSafeAdapters ? "return $T.$L($L).nullSafe()" : "return $T.$L($L)";
-        classes.addStatement(
-            returnStatement,
-            element,
-            jsonAdapterMethod.getSimpleName(),
+        CodeBlock adapter = CodeBlock.of(
+            requestNullSafeAdapters ? "$L($L).nullSafe()" : "$L($L)",
+            source.callee,
             moshiArgBlock);
+        dispatch.addStatement("return $L", adapter);
+        dispatch.unindent();
       }
     }
+  }
 
-    if (generics != null) {
-      generics.endControlFlow();
-      generics.addStatement("return null");
-      generics.endControlFlow();
-      create.addCode(generics.build());
+  private void addCaseGeneric(CodeBlock.Builder block, TypeName elementTypeName,
+      AdapterSource source, boolean requestNullSafeAdapters) {
+    ClassName typeName = ((ParameterizedTypeName) elementTypeName).rawType;
+    addCase(block, typeName);
+
+    String returnStatement = requestNullSafeAdapters
+        ? "return $L($N, (($T) $N).getActualTypeArguments()).nullSafe()"
+        : "return $L($N, (($T) $N).getActualTypeArguments())";
+
+    if (!source.specializations.isEmpty()) {
+      addSpecializations(block, source, requestNullSafeAdapters);
+    } else if (source.parameterCount > 1) {
+      // Generic types only provide adapters for parameterized types
+      block.beginControlFlow("if ($N instanceof $T)", TYPE_SPEC, ParameterizedType.class);
+      block.addStatement(returnStatement,
+          source.callee, MOSHI_SPEC,
+          ParameterizedType.class, TYPE_SPEC);
+      block.endControlFlow();
     }
+    block.addStatement("return null");
+    block.unindent();
+  }
 
-    if (classes != null) {
-      classes.endControlFlow();
-      create.addCode(classes.build());
+  /**
+   * Adds the specialized adapters of {@code source} ahead of its generic adapter, matching their
+   * type arguments by identity. They're all classes, which Moshi doesn't replace when it
+   * canonicalizes a type.
+   */
+  private void addSpecializations(CodeBlock.Builder block, AdapterSource source,
+      boolean requestNullSafeAdapters) {
+    block.beginControlFlow("if ($N instanceof $T)", TYPE_SPEC, ParameterizedType.class);
+    block.addStatement("$T typeArguments = (($T) $N).getActualTypeArguments()", Type[].class,
+        ParameterizedType.class, TYPE_SPEC);
+    for (Specialization specialization : source.specializations) {
+      List<CodeBlock> matches = new ArrayList<>();
+      for (int i = 0; i < specialization.typeArguments.size(); i++) {
+        matches.add(CodeBlock.of("typeArguments[$L] == $T.class", i,
+            ClassName.get(specialization.typeArguments.get(i))));
+      }
+      CodeBlock adapter = CodeBlock.of(
+          requestNullSafeAdapters ? "new $T($N).nullSafe()" : "new $T($N)",
+          specialization.adapter, MOSHI_SPEC);
+      block.addStatement("if ($L) return $L", CodeBlock.join(matches, " && "), adapter);
+    }
+    if (source.parameterCount > 1) {
+      block.addStatement(
+          requestNullSafeAdapters ? "return $L($N, typeArguments).nullSafe()"
+              : "return $L($N, typeArguments)",
+          source.callee, MOSHI_SPEC);
     }
+    block.endControlFlow();
+  }
 
-    create.addStatement("return null");
-    factory.addMethod(create.build());
-    return factory.build();
+  private void addCase(CodeBlock.Builder block, ClassName className) {
+    block.add("case $S:\n", className.reflectionName());
+    block.indent();
   }
 
-  private void addControlFlowGeneric(CodeBlock.Builder block, TypeName elementTypeName,
-      Element element, int numGenerics, boolean requestNullSafeAdapters) {
-    TypeName typeName = ((ParameterizedTypeName) elementTypeName).rawType;
-    addControlFlow(block, typeName, numGenerics);
+  /** How a generated factory creates the adapter of an AutoValue type. */
+  private static final class AdapterSource {
+    /** The method or constructor to call, without its arguments. */
+    final CodeBlock callee;
+    /** The number of arguments {@link #callee} takes. */
+    final int parameterCount;
+    /** The element that needs to be visible to the factory, along with the type itself. */
+    final Element declaration;
+    /** Adapters of declared instantiations of a generic type, to use ahead of {@link #callee}. */
+    final List<Specialization> specializations;
+
+    private AdapterSource(CodeBlock callee, int parameterCount, Element declaration,
+        List<Specialization> specializations) {
+      this.callee = callee;
+      this.parameterCount = parameterCount;
+      this.declaration = declaration;
+      this.specializations = specializations;
+    }
 
-    String returnStatement = requestNullSafeAdapters
-        ? "return $L.$L($N, (($T) $N).getActualTypeArguments()).nullSafe()"
-        : "return $L.$L($N, (($T) $N).getActualTypeArguments())";
+    static AdapterSource forMethod(TypeElement type, ExecutableElement method) {
+      return new AdapterSource(
+          CodeBlock.of("$T.$N", rawClassName(type), method.getSimpleName().toString()),
+          method.getParameters().size(), method, Specialization.of(type));
+    }
 
-    ExecutableElement jsonAdapterMethod = getJsonAdapterMethod(element);
-    if (jsonAdapterMethod.getParameters().size() > 1) {
-      block.addStatement(returnStatement,
-          element.getSimpleName(), jsonAdapterMethod.getSimpleName(), MOSHI_SPEC,
-          ParameterizedType.class, TYPE_SPEC);
+    /**
+     * Calls the public constructor of the external adapter generated for
+     * {@code @JsonClass(generator = "avm")} types directly, instead of leaving Moshi to find it
+     * through reflection.
+     */
+    static AdapterSource forExternalAdapter(TypeElement type, ClassName adapter) {
+      boolean generic = !type.getTypeParameters().isEmpty();
+      return new AdapterSource(CodeBlock.of(generic ? "new $T<>" : "new $T", adapter),
+          generic ? 2 : 1, type, Specialization.of(type));
+    }
+
+    /** Returns this source with only the specializations code in {@code packageElement} sees. */
+    AdapterSource visibleFrom(PackageElement packageElement) {
+      List<Specialization> visible = specializations.stream()
+          .filter(specialization -> specialization.isVisible(packageElement))
+          .collect(toList());
+      return visible.size() == specializations.size()
+          ? this
+          : new AdapterSource(callee, parameterCount, declaration, visible);
     }
   }
 
-  private void addControlFlow(CodeBlock.Builder block,
-      TypeName elementTypeName, int pos) {
-    if (pos == 0) {
-      block.beginControlFlow("if ($T.class.isAssignableFrom(rawType))", elementTypeName);
-    } else {
-      block.nextControlFlow("else if ($T.class.isAssignableFrom(rawType))", elementTypeName);
+  /** The specialized adapter generated for a declared instantiation of a generic type. */
+  private static final class Specialization {
+    final TypeElement type;
+    final List<TypeElement> typeArguments;
+    final ClassName adapter;
+
+    private Specialization(TypeElement type, List<TypeElement> typeArguments, ClassName adapter) {
+      this.type = type;
+      this.typeArguments = typeArguments;
+      this.adapter = adapter;
+    }
+
+    static List<Specialization> of(TypeElement type) {
+      List<Specialization> specializations = new ArrayList<>();
+      AutoValueMoshiExtension.specializedAdapterNames(type).forEach((arguments, adapter) ->
+          specializations.add(new Specialization(type,
+              arguments.stream().map(MoreTypes::asTypeElement).collect(toList()), adapter)));
+      return specializations;
+    }
+
+    /**
+     * Returns true if code in {@code packageElement} can create the adapter. Adapters nested in
+     * the package private AutoValue class are only visible from its package.
+     */
+    boolean isVisible(PackageElement packageElement) {
+      //noinspection UnstableApiUsage
+      boolean adapterVisible = AutoValueMoshiExtension.externalAdapterName(type) != null
+          || getPackage(type).equals(packageElement);
+      return adapterVisible && typeArguments.stream()
+          .allMatch(argument -> AutoValueMoshiAdapterFactoryProcessor.isVisible(argument,
+              packageElement));
+    }
+  }
+
+  /** Returns true if {@code element} can be referenced from code in {@code packageElement}. */
+  private static boolean isVisible(Element element, PackageElement packageElement) {
+    switch (Visibility.ofElement(element)) {
+      case PRIVATE:
+        return false;
+      case DEFAULT:
+      case PROTECTED:
+        //noinspection UnstableApiUsage
+        return getPackage(element).equals(packageElement);
+      default:
+        return true;
     }
   }
 
@@ -390,6 +615,14 @@ public final class AutoValueMoshiAdapterFactoryProcessor extends AbstractProcess
     return Joiner.on("_").join(ClassName.get(type).simpleNames());
   }
 
+  /** Returns the class name of {@code type} without any type arguments. */
+  private static ClassName rawClassName(TypeElement type) {
+    TypeName typeName = TypeName.get(type.asType());
+    return typeName instanceof ParameterizedTypeName
+        ? ((ParameterizedTypeName) typeName).rawType
+        : (ClassName) typeName;
+  }
+
   /**
    * Returns the package element that the given type is in. If the type is in the default
    * (unnamed) package then the name is the empty string.
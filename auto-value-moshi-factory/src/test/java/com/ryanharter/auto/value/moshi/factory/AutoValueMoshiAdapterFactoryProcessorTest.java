@@ -3,9 +3,11 @@ package com.ryanharter.auto.value.moshi.factory;
 import com.google.common.collect.ImmutableSet;
 import com.google.testing.compile.JavaFileObjects;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import org.junit.Test;
 
 import static com.google.common.truth.Truth.assertAbout;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 
 public final class AutoValueMoshiAdapterFactoryProcessorTest {
@@ -89,6 +91,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.Type;\n"
@@ -105,10 +108,14 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (Bar.class.isAssignableFrom(rawType)) {\n"
-            + "      return Bar.jsonAdapter();\n"
-            + "    } else if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "      return Foo.jsonAdapter(moshi);\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"test.Bar\":\n"
+            + "          return Bar.jsonAdapter();\n"
+            + "        case \"test.Foo\":\n"
+            + "          return Foo.jsonAdapter(moshi);\n"
+            + "      }\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -163,6 +170,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.Type;\n"
@@ -179,10 +187,14 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (Bar.class.isAssignableFrom(rawType)) {\n"
-            + "      return Bar.jsonAdapter(moshi);\n"
-            + "    } else if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "      return Foo.jsonAdapter(moshi);\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"test.Bar\":\n"
+            + "          return Bar.jsonAdapter(moshi);\n"
+            + "        case \"test.Foo\":\n"
+            + "          return Foo.jsonAdapter(moshi);\n"
+            + "      }\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -226,6 +238,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.Type;\n"
@@ -241,8 +254,12 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "     Set<? extends Annotation> annotations, Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "      return Foo.jsonAdapter(moshi);\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"com.Test.Foo\":\n"
+            + "          return Foo.jsonAdapter(moshi);\n"
+            + "      }\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -361,6 +378,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.Type;\n"
@@ -377,10 +395,14 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (Bar.class.isAssignableFrom(rawType)) {\n"
-            + "      return Bar.jsonAdapter(moshi);\n"
-            + "    } else if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "      return Foo.jsonAdapter(moshi);\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"test.Bar\":\n"
+            + "          return Bar.jsonAdapter(moshi);\n"
+            + "        case \"test.Foo\":\n"
+            + "          return Foo.jsonAdapter(moshi);\n"
+            + "      }\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -444,6 +466,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.Type;\n"
@@ -460,10 +483,14 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (Bar.class.isAssignableFrom(rawType)) {\n"
-            + "      return Bar.jsonAdapter(moshi);\n"
-            + "    } else if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "      return Foo.jsonAdapter(moshi);\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"test.Bar\":\n"
+            + "          return Bar.jsonAdapter(moshi);\n"
+            + "        case \"test.Foo\":\n"
+            + "          return Foo.jsonAdapter(moshi);\n"
+            + "      }\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -510,6 +537,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.ParameterizedType;\n"
@@ -527,12 +555,16 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "     Set<? extends Annotation> annotations, Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (type instanceof ParameterizedType) {\n"
-            + "      if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "        return Foo.jsonAdapter(moshi, "
-            + "          ((ParameterizedType) type).getActualTypeArguments());\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"test.Foo\":\n"
+            + "          if (type instanceof ParameterizedType) {\n"
+            + "            return Foo.jsonAdapter(moshi, "
+            + "              ((ParameterizedType) type).getActualTypeArguments());\n"
+            + "          }\n"
+            + "          return null;\n"
             + "      }\n"
-            + "      return null;\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -591,6 +623,7 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "import com.squareup.moshi.Moshi;\n"
             + "import com.squareup.moshi.Types;\n"
             + "import java.lang.Class;\n"
+            + "import java.lang.Object;\n"
             + "import java.lang.Override;\n"
             + "import java.lang.annotation.Annotation;\n"
             + "import java.lang.reflect.ParameterizedType;\n"
@@ -609,15 +642,18 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
             + "      Set<? extends Annotation> annotations, Moshi moshi) {\n"
             + "    if (!annotations.isEmpty()) return null;\n"
             + "    Class<?> rawType = Types.getRawType(type);\n"
-            + "    if (type instanceof ParameterizedType) {\n"
-            + "      if (Foo.class.isAssignableFrom(rawType)) {\n"
-            + "        return Foo.jsonAdapter(moshi, "
-            + "          ((ParameterizedType) type).getActualTypeArguments()).nullSafe();\n"
+            + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+            + "c = c.getSuperclass()) {\n"
+            + "      switch (c.getName()) {\n"
+            + "        case \"test.Bar\":\n"
+            + "          return Bar.jsonAdapter(moshi).nullSafe();\n"
+            + "        case \"test.Foo\":\n"
+            + "          if (type instanceof ParameterizedType) {\n"
+            + "            return Foo.jsonAdapter(moshi, "
+            + "              ((ParameterizedType) type).getActualTypeArguments()).nullSafe();\n"
+            + "          }\n"
+            + "          return null;\n"
             + "      }\n"
-            + "      return null;\n"
-            + "    }\n"
-            + "    if (Bar.class.isAssignableFrom(rawType)) {\n"
-            + "      return Bar.jsonAdapter(moshi).nullSafe();\n"
             + "    }\n"
             + "    return null;\n"
             + "  }\n"
@@ -629,6 +665,385 @@ public final class AutoValueMoshiAdapterFactoryProcessorTest {
         .generatesSources(expected);
   }
 
+  @Test public void generatesJsonAdapterFactoryForExternalAdapters() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "import java.util.List;\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "@AutoValue public abstract class Foo<V> {\n"
+        + "  public abstract List<V> getItems();\n"
+        + "}");
+    JavaFileObject source2 = JavaFileObjects.forSourceString("test.Bar", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "@AutoValue public abstract class Bar {\n"
+        + "  public abstract String value();\n"
+        + "}");
+    JavaFileObject source3 = JavaFileObjects.forSourceString("test.MyAdapterFactory", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterFactory;\n"
+        + "@MoshiAdapterFactory\n"
+        + "public abstract class MyAdapterFactory implements JsonAdapter.Factory {\n"
+        + "}");
+    // Stand-ins for the external adapters generated by the extension
+    JavaFileObject adapter1 = JavaFileObjects.forSourceString("test.FooJsonAdapter", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "public final class FooJsonAdapter<V> extends JsonAdapter<Foo<V>> {\n"
+        + "  public FooJsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "  }\n"
+        + "  @Override public Foo<V> fromJson(JsonReader reader) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  @Override public void toJson(JsonWriter writer, Foo<V> value) {\n"
+        + "  }\n"
+        + "}");
+    JavaFileObject adapter2 = JavaFileObjects.forSourceString("test.BarJsonAdapter", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "public final class BarJsonAdapter extends JsonAdapter<Bar> {\n"
+        + "  public BarJsonAdapter(Moshi moshi) {\n"
+        + "  }\n"
+        + "  @Override public Bar fromJson(JsonReader reader) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  @Override public void toJson(JsonWriter writer, Bar value) {\n"
+        + "  }\n"
+        + "}");
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test.AutoValueMoshi_MyAdapterFactory", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import com.squareup.moshi.Types;\n"
+        + "import java.lang.Class;\n"
+        + "import java.lang.Object;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.annotation.Annotation;\n"
+        + "import java.lang.reflect.ParameterizedType;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.Set;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.factory.AutoValueMoshiAdapterFactoryProcessor\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "public final class AutoValueMoshi_MyAdapterFactory extends MyAdapterFactory {\n"
+        + "  @Override\n"
+        + "  public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations, "
+        + "Moshi moshi) {\n"
+        + "    if (!annotations.isEmpty()) return null;\n"
+        + "    Class<?> rawType = Types.getRawType(type);\n"
+        + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+        + "c = c.getSuperclass()) {\n"
+        + "      switch (c.getName()) {\n"
+        + "        case \"test.Bar\":\n"
+        + "          return new BarJsonAdapter(moshi);\n"
+        + "        case \"test.Foo\":\n"
+        + "          if (type instanceof ParameterizedType) {\n"
+        + "            return new FooJsonAdapter<>(moshi, "
+        + "((ParameterizedType) type).getActualTypeArguments());\n"
+        + "          }\n"
+        + "          return null;\n"
+        + "      }\n"
+        + "    }\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "}");
+    assertAbout(javaSources())
+        .that(ImmutableSet.of(source1, source2, source3, adapter1, adapter2))
+        .processedWith(new AutoValueMoshiAdapterFactoryProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void generatesJsonAdapterFactoryForSpecializedAdapters() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiSpecialization;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@MoshiSpecialization(Bar.class)\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "@AutoValue public abstract class Foo<V> {\n"
+        + "  public abstract V item();\n"
+        + "}");
+    JavaFileObject source2 = JavaFileObjects.forSourceString("test.Bar", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonClass;\n"
+        + "@JsonClass(generateAdapter = true, generator = \"avm\")\n"
+        + "@AutoValue public abstract class Bar {\n"
+        + "  public abstract String value();\n"
+        + "}");
+    JavaFileObject source3 = JavaFileObjects.forSourceString("test.MyAdapterFactory", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterFactory;\n"
+        + "@MoshiAdapterFactory\n"
+        + "public abstract class MyAdapterFactory implements JsonAdapter.Factory {\n"
+        + "}");
+    // Stand-ins for the external adapters generated by the extension
+    JavaFileObject adapter1 = JavaFileObjects.forSourceString("test.FooJsonAdapter", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "public final class FooJsonAdapter<V> extends JsonAdapter<Foo<V>> {\n"
+        + "  public FooJsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "  }\n"
+        + "  @Override public Foo<V> fromJson(JsonReader reader) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  @Override public void toJson(JsonWriter writer, Foo<V> value) {\n"
+        + "  }\n"
+        + "}");
+    JavaFileObject adapter2 = JavaFileObjects.forSourceString("test.FooJsonAdapter_Bar", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "public final class FooJsonAdapter_Bar extends JsonAdapter<Foo<Bar>> {\n"
+        + "  public FooJsonAdapter_Bar(Moshi moshi) {\n"
+        + "  }\n"
+        + "  @Override public Foo<Bar> fromJson(JsonReader reader) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  @Override public void toJson(JsonWriter writer, Foo<Bar> value) {\n"
+        + "  }\n"
+        + "}");
+    JavaFileObject adapter3 = JavaFileObjects.forSourceString("test.BarJsonAdapter", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.JsonReader;\n"
+        + "import com.squareup.moshi.JsonWriter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "public final class BarJsonAdapter extends JsonAdapter<Bar> {\n"
+        + "  public BarJsonAdapter(Moshi moshi) {\n"
+        + "  }\n"
+        + "  @Override public Bar fromJson(JsonReader reader) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  @Override public void toJson(JsonWriter writer, Bar value) {\n"
+        + "  }\n"
+        + "}");
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test.AutoValueMoshi_MyAdapterFactory", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import com.squareup.moshi.Types;\n"
+        + "import java.lang.Class;\n"
+        + "import java.lang.Object;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.annotation.Annotation;\n"
+        + "import java.lang.reflect.ParameterizedType;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.Set;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.factory.AutoValueMoshiAdapterFactoryProcessor\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "public final class AutoValueMoshi_MyAdapterFactory extends MyAdapterFactory {\n"
+        + "  @Override\n"
+        + "  public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations, "
+        + "Moshi moshi) {\n"
+        + "    if (!annotations.isEmpty()) return null;\n"
+        + "    Class<?> rawType = Types.getRawType(type);\n"
+        + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+        + "c = c.getSuperclass()) {\n"
+        + "      switch (c.getName()) {\n"
+        + "        case \"test.Bar\":\n"
+        + "          return new BarJsonAdapter(moshi);\n"
+        + "        case \"test.Foo\":\n"
+        + "          if (type instanceof ParameterizedType) {\n"
+        + "            Type[] typeArguments = ((ParameterizedType) type).getActualTypeArguments();\n"
+        + "            if (typeArguments[0] == Bar.class) return new FooJsonAdapter_Bar(moshi);\n"
+        + "            return new FooJsonAdapter<>(moshi, typeArguments);\n"
+        + "          }\n"
+        + "          return null;\n"
+        + "      }\n"
+        + "    }\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "}");
+    assertAbout(javaSources())
+        .that(ImmutableSet.of(source1, source2, source3, adapter1, adapter2, adapter3))
+        .processedWith(new AutoValueMoshiAdapterFactoryProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
+  @Test public void generatesRegistry() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.List;\n"
+        + "@AutoValue public abstract class Foo<V> {\n"
+        + "  public static <V> JsonAdapter<Foo<V>> jsonAdapter(Moshi moshi, Type[] types) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  public abstract List<V> getItems();\n"
+        + "}");
+    JavaFileObject source2 = JavaFileObjects.forSourceString("test.Bar", ""
+        + "package test;\n"
+        + "import com.google.auto.value.AutoValue;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "@AutoValue public abstract class Bar {\n"
+        + "  public static JsonAdapter<Bar> jsonAdapter(Moshi moshi) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "  public abstract String value();\n"
+        + "}");
+    JavaFileObject source3 = JavaFileObjects.forSourceString("test.MyAdapterFactory", ""
+        + "package test.factory;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterFactory;\n"
+        + "@MoshiAdapterFactory(nullSafe = true, registry = true)\n"
+        + "public abstract class MyAdapterFactory implements JsonAdapter.Factory {\n"
+        + "}");
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test.AutoValueMoshi_MyAdapterFactoryRegistry", ""
+        + "package test.factory;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterRegistry;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.reflect.ParameterizedType;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.Arrays;\n"
+        + "import java.util.Collections;\n"
+        + "import java.util.HashSet;\n"
+        + "import java.util.Set;\n"
+        + "import javax.annotation.Generated;\n"
+        + "import test.Bar;\n"
+        + "import test.Foo;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.factory.AutoValueMoshiAdapterFactoryProcessor\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "public final class AutoValueMoshi_MyAdapterFactoryRegistry "
+        + "implements MoshiAdapterRegistry {\n"
+        + "  private static final Set<String> TYPE_NAMES = Collections.unmodifiableSet("
+        + "new HashSet<>(Arrays.asList(\"test.Bar\", \"test.Foo\")));\n"
+        + "\n"
+        + "  @Override\n"
+        + "  public Set<String> typeNames() {\n"
+        + "    return TYPE_NAMES;\n"
+        + "  }\n"
+        + "\n"
+        + "  @Override\n"
+        + "  public JsonAdapter<?> create(String typeName, Type type, Moshi moshi) {\n"
+        + "    switch (typeName) {\n"
+        + "      case \"test.Bar\":\n"
+        + "        return Bar.jsonAdapter(moshi).nullSafe();\n"
+        + "      case \"test.Foo\":\n"
+        + "        if (type instanceof ParameterizedType) {\n"
+        + "          return Foo.jsonAdapter(moshi, "
+        + "((ParameterizedType) type).getActualTypeArguments()).nullSafe();\n"
+        + "        }\n"
+        + "        return null;\n"
+        + "    }\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "}");
+    assertAbout(javaSources()).that(ImmutableSet.of(source1, source2, source3))
+        .processedWith(new AutoValueMoshiAdapterFactoryProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected)
+        .and()
+        .generatesFileNamed(StandardLocation.CLASS_OUTPUT, "",
+            "META-INF/services/com.ryanharter.auto.value.moshi.MoshiAdapterRegistry")
+        .withStringContents(UTF_8, "test.factory.AutoValueMoshi_MyAdapterFactoryRegistry\n");
+  }
+
+  @Test public void generatesAggregatingJsonAdapterFactory() {
+    JavaFileObject source1 = JavaFileObjects.forSourceString("test.MyAdapterFactory", ""
+        + "package test;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterFactory;\n"
+        + "@MoshiAdapterFactory(aggregate = true)\n"
+        + "public abstract class MyAdapterFactory implements JsonAdapter.Factory {\n"
+        + "}");
+    JavaFileObject expected =
+        JavaFileObjects.forSourceString("test.AutoValueMoshi_MyAdapterFactory", ""
+        + "package test;\n"
+        + "\n"
+        + "import com.ryanharter.auto.value.moshi.AdapterRegistries;\n"
+        + "import com.ryanharter.auto.value.moshi.MoshiAdapterRegistry;\n"
+        + "import com.squareup.moshi.JsonAdapter;\n"
+        + "import com.squareup.moshi.Moshi;\n"
+        + "import com.squareup.moshi.Types;\n"
+        + "import java.lang.Class;\n"
+        + "import java.lang.Object;\n"
+        + "import java.lang.Override;\n"
+        + "import java.lang.String;\n"
+        + "import java.lang.annotation.Annotation;\n"
+        + "import java.lang.reflect.Type;\n"
+        + "import java.util.Map;\n"
+        + "import java.util.Set;\n"
+        + "import javax.annotation.Generated;\n"
+        + "\n"
+        + "@Generated(\n"
+        + "    value = \"com.ryanharter.auto.value.moshi.factory.AutoValueMoshiAdapterFactoryProcessor\",\n"
+        + "    comments = \"https://github.com/rharter/auto-value-moshi\"\n"
+        + ")\n"
+        + "public final class AutoValueMoshi_MyAdapterFactory extends MyAdapterFactory {\n"
+        + "  private final Map<String, MoshiAdapterRegistry> registries = "
+        + "AdapterRegistries.load(getClass().getClassLoader());\n"
+        + "\n"
+        + "  @Override\n"
+        + "  public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations, "
+        + "Moshi moshi) {\n"
+        + "    if (!annotations.isEmpty()) return null;\n"
+        + "    Class<?> rawType = Types.getRawType(type);\n"
+        + "    for (Class<?> c = rawType; c != null && c != Object.class; "
+        + "c = c.getSuperclass()) {\n"
+        + "      MoshiAdapterRegistry registry = registries.get(c.getName());\n"
+        + "      if (registry != null) {\n"
+        + "        return registry.create(c.getName(), type, moshi);\n"
+        + "      }\n"
+        + "    }\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "}");
+    assertAbout(javaSources()).that(ImmutableSet.of(source1))
+        .processedWith(new AutoValueMoshiAdapterFactoryProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(expected);
+  }
+
   @Test public void noAutoValueModelsShouldError() {
     JavaFileObject source1 = JavaFileObjects.forSourceString("test.Foo", ""
         + "package test;\n"
@@ -0,0 +1,66 @@
+package com.ryanharter.auto.value.moshi;
+
+/**
+ * Receives statistics from generated adapters that opted in through {@link MoshiAdapterOptions}.
+ * All methods do nothing by default, override the ones you're interested in and
+ * {@linkplain #install(AdapterMetrics) install} an instance once at startup.
+ * <p>
+ * Methods are called synchronously on the thread that is reading or writing JSON, so they should
+ * be cheap and thread safe.
+ */
+public abstract class AdapterMetrics {
+  /**
+   * The metrics returned by {@link #get()} when none are installed. Generated adapters skip
+   * collecting metrics that would only be passed to it.
+   */
+  public static final AdapterMetrics NONE = new AdapterMetrics() {
+  };
+
+  private static volatile AdapterMetrics installed = NONE;
+
+  /** Installs {@code metrics} for all generated adapters, or removes it if {@code null}. */
+  public static void install(AdapterMetrics metrics) {
+    installed = metrics != null ? metrics : NONE;
+  }
+
+  /** Returns the installed metrics, which do nothing if none were installed. */
+  public static AdapterMetrics get() {
+    return installed;
+  }
+
+  /**
+   * Called after the adapter for {@code type} read an object containing {@code count} names that
+   * didn't map to any property and were skipped.
+   *
+   * @see MoshiAdapterOptions#reportUnknownFields()
+   */
+  public void onUnknownFieldsSkipped(Class<?> type, int count) {
+  }
+
+  /**
+   * Called after the adapter for {@code type} read an object in which {@code count} properties
+   * were JSON {@code null}.
+   *
+   * @see MoshiAdapterOptions#reportMetrics()
+   */
+  public void onNullsRead(Class<?> type, int count) {
+  }
+
+  /**
+   * Called after the adapter for {@code type} read an object in {@code nanos} nanoseconds,
+   * including the time spent reading its properties.
+   *
+   * @see MoshiAdapterOptions#reportMetrics()
+   */
+  public void onRead(Class<?> type, long nanos) {
+  }
+
+  /**
+   * Called after the adapter for {@code type} wrote an object in {@code nanos} nanoseconds,
+   * including the time spent writing its properties.
+   *
+   * @see MoshiAdapterOptions#reportMetrics()
+   */
+  public void onWritten(Class<?> type, long nanos) {
+  }
+}
@@ -0,0 +1,31 @@
+package com.ryanharter.auto.value.moshi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Loads the {@link MoshiAdapterRegistry registries} generated for other modules from the
+ * classpath.
+ */
+public final class AdapterRegistries {
+  private AdapterRegistries() {
+    throw new AssertionError("No instances.");
+  }
+
+  /**
+   * Returns the registries listed as services to {@code classLoader}, indexed by the names of the
+   * types they provide. If more than one registry provides a type, the first one found is used.
+   */
+  public static Map<String, MoshiAdapterRegistry> load(ClassLoader classLoader) {
+    Map<String, MoshiAdapterRegistry> registries = new HashMap<>();
+    for (MoshiAdapterRegistry registry
+        : ServiceLoader.load(MoshiAdapterRegistry.class, classLoader)) {
+      for (String typeName : registry.typeNames()) {
+        registries.putIfAbsent(typeName, registry);
+      }
+    }
+    return Collections.unmodifiableMap(registries);
+  }
+}
@@ -0,0 +1,93 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the elements of a JSON array through a {@link JsonAdapter} one at a time, without
+ * collecting them into a {@link java.util.List}.
+ * <p>
+ * <code><pre>
+ *   JsonAdapter&lt;Foo&gt; adapter = moshi.adapter(Foo.class);
+ *   JsonArrays.forEach(reader, adapter, foo -&gt; process(foo));
+ * </pre></code>
+ */
+public final class JsonArrays {
+  private JsonArrays() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Receives the elements of a streamed JSON array. */
+  public interface Callback<T> {
+    void onElement(T element) throws IOException;
+  }
+
+  /**
+   * Reads the array {@code reader} is positioned at, passing each element decoded by
+   * {@code adapter} to {@code callback} as soon as it is read. The array is consumed completely.
+   */
+  public static <T> void forEach(JsonReader reader, JsonAdapter<T> adapter,
+      Callback<? super T> callback) throws IOException {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      callback.onElement(adapter.fromJson(reader));
+    }
+    reader.endArray();
+  }
+
+  /**
+   * Returns an iterator over the elements of the array {@code reader} is positioned at, decoding
+   * each element with {@code adapter} when it is requested. The array is consumed as the iterator
+   * advances, so the iterator can only be traversed once and {@code reader} must not be used
+   * until it is exhausted.
+   * <p>
+   * Failures reading the array while iterating are rethrown as {@link UncheckedIOException}.
+   */
+  public static <T> Iterator<T> iterator(JsonReader reader, JsonAdapter<T> adapter)
+      throws IOException {
+    reader.beginArray();
+    return new ArrayIterator<>(reader, adapter);
+  }
+
+  private static final class ArrayIterator<T> implements Iterator<T> {
+    private final JsonReader reader;
+    private final JsonAdapter<T> adapter;
+    private boolean done;
+
+    ArrayIterator(JsonReader reader, JsonAdapter<T> adapter) {
+      this.reader = reader;
+      this.adapter = adapter;
+    }
+
+    @Override public boolean hasNext() {
+      if (done) {
+        return false;
+      }
+      try {
+        if (reader.hasNext()) {
+          return true;
+        }
+        reader.endArray();
+        done = true;
+        return false;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        return adapter.fromJson(reader);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import okio.Buffer;
+
+/**
+ * Decodes JSON documents held in part of an Okio {@link Buffer}, like one message among many read
+ * into the same buffer, without copying their bytes.
+ * <p>
+ * <code><pre>
+ *   Foo foo = JsonBuffers.fromJson(adapter, buffer, offset, length);
+ * </pre></code>
+ */
+public final class JsonBuffers {
+  private JsonBuffers() {
+    throw new AssertionError("No instances.");
+  }
+
+  /**
+   * Decodes the single JSON document in the {@code byteCount} bytes of {@code buffer} starting at
+   * {@code offset} with {@code adapter}. The region shares the buffer's segments instead of
+   * copying them, and {@code buffer} is left unchanged.
+   * <p>
+   * Like {@link JsonAdapter#fromJson(String)}, this fails if the region contains anything but
+   * whitespace after the document.
+   */
+  public static <T> T fromJson(JsonAdapter<T> adapter, Buffer buffer, long offset, long byteCount)
+      throws IOException {
+    Buffer region = new Buffer();
+    buffer.copyTo(region, offset, byteCount);
+    JsonReader reader = JsonReader.of(region);
+    T result = adapter.fromJson(reader);
+    // Mirrors JsonAdapter.fromJson(String), which rejects trailing data
+    if (reader.peek() != JsonReader.Token.END_DOCUMENT) {
+      throw new JsonDataException("JSON document was not fully consumed.");
+    }
+    return result;
+  }
+}
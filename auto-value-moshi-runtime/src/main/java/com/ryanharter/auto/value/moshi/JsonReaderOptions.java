@@ -0,0 +1,37 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.squareup.moshi.JsonReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares {@link JsonReader.Options} between the generated adapters of types with the same names.
+ * <p>
+ * Building options encodes every name, so types sharing common names like {@code id} and
+ * {@code name} would otherwise each encode them again when their adapter is first used. Options
+ * are built on the first request for their names and kept for the life of the class loader.
+ */
+public final class JsonReaderOptions {
+  private static final ConcurrentMap<List<String>, JsonReader.Options> OPTIONS =
+      new ConcurrentHashMap<>();
+
+  private JsonReaderOptions() {
+    throw new AssertionError("No instances.");
+  }
+
+  /**
+   * Returns options for {@code names}, in order, equivalent to
+   * {@link JsonReader.Options#of(String...)}.
+   */
+  public static JsonReader.Options of(String... names) {
+    // Copied, so changes to the caller's array don't change the key
+    List<String> key = Arrays.asList(names.clone());
+    JsonReader.Options options = OPTIONS.get(key);
+    if (options == null) {
+      options = OPTIONS.computeIfAbsent(key, k -> JsonReader.Options.of(names));
+    }
+    return options;
+  }
+}
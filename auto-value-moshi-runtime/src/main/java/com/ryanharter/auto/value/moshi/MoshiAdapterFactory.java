@@ -30,4 +30,21 @@ public @interface MoshiAdapterFactory {
    * (default {@code false}).
    */
   boolean nullSafe() default false;
+
+  /**
+   * Indicates if a {@link MoshiAdapterRegistry} should be generated alongside the factory and
+   * listed as a service, so {@link #aggregate() aggregating} factories in other modules can provide
+   * the same adapters (default {@code false}).
+   */
+  boolean registry() default false;
+
+  /**
+   * Indicates if the generated factory should also provide the adapters of every
+   * {@link MoshiAdapterRegistry} on the classpath, looking them up by type name in a single table
+   * instead of chaining a factory per module (default {@code false}).
+   * <p>
+   * Registries are loaded with the factory's class loader when it is created. An aggregating
+   * factory doesn't require any {@code @AutoValue} types of its own.
+   */
+  boolean aggregate() default false;
 }
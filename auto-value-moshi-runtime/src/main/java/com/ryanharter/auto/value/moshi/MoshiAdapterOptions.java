@@ -0,0 +1,112 @@
+package com.ryanharter.auto.value.moshi;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Configures the JsonAdapter generated for the annotated AutoValue class. All options default to
+ * the behavior of an unannotated class.
+ * <p>
+ * <code><pre>
+ *   &#64;MoshiAdapterOptions(lazyAdapters = true)
+ *   &#64;AutoValue
+ *   public abstract class Foo {
+ *     ...
+ *   }
+ * </pre></code>
+ */
+@Retention(CLASS)
+@Target(TYPE)
+public @interface MoshiAdapterOptions {
+  /**
+   * Indicates if the generated adapter should resolve the delegate adapters of its properties the
+   * first time each property is read or written, rather than in its constructor
+   * (default {@code false}).
+   * <p>
+   * This avoids building adapters for the whole object graph up front when only some properties
+   * are ever present, at the cost of a volatile read per delegated property access.
+   */
+  boolean lazyAdapters() default false;
+
+  /**
+   * Indicates if the generated adapter should read and write unqualified {@code String},
+   * primitive and boxed {@code boolean}, {@code int}, {@code long} and {@code double} properties
+   * itself, rather than through the adapters {@code Moshi} returns for those types
+   * (default {@code true}).
+   * <p>
+   * Inlined properties skip any adapter registered for those types, so turn this off to keep
+   * them going through such an adapter. A JSON {@code null} in a non-null boxed property throws
+   * a {@code JsonDataException} either way.
+   */
+  boolean inlineProperties() default true;
+
+  /**
+   * Indicates if the generated adapter should count the names it skips because they don't map to
+   * any property, and report them to {@link AdapterMetrics#onUnknownFieldsSkipped} after each
+   * object (default {@code false}).
+   */
+  boolean reportUnknownFields() default false;
+
+  /**
+   * Indicates if the generated adapter should expect names in property order, matching the name
+   * following the last one it read before looking it up among all names (default {@code false}).
+   * <p>
+   * This speeds up reading JSON written in property order, like the output of the generated
+   * adapter itself. Every name that arrives out of order, including unknown names, is decoded into
+   * a {@code String} on the miss and then compared against each name in turn, instead of being
+   * matched against the encoded names without allocating.
+   */
+  boolean predictFieldOrder() default false;
+
+  /**
+   * Indicates if the generated adapter for a class with an {@code @AutoValue.Builder} should read
+   * properties into locals and call the AutoValue constructor directly when the JSON contains all
+   * of them, only using the builder to apply its defaults when some are missing
+   * (default {@code false}).
+   * <p>
+   * The builder's build method must be abstract, so custom validation in it is never skipped.
+   * Ignored for external adapters, which can't reach the constructor of a class with a builder.
+   */
+  boolean bypassBuilder() default false;
+
+  /**
+   * Indicates if the generated adapter should time every object it reads and writes, and count
+   * the properties it reads as JSON {@code null} as well as the unknown names it skips, reporting
+   * them to the installed {@link AdapterMetrics} (default {@code false}).
+   * <p>
+   * The installed metrics are read once per object. While none are installed, timing and counting
+   * nulls are skipped entirely, leaving that volatile read and the count of unknown names.
+   */
+  boolean reportMetrics() default false;
+
+  /**
+   * Indicates if the generated adapter should call the adapters generated for properties of other
+   * non-generic AutoValue types directly, rather than through the {@code nonNull()} or
+   * {@code nullSafe()} wrapper of the adapter {@code Moshi} returns for them (default
+   * {@code false}).
+   * <p>
+   * The adapter is still looked up through {@code Moshi} when the generated adapter is created,
+   * and only linked if the lookup returned it, so adapters registered for those types and
+   * qualified properties keep going through their delegate, as do adapters returned by a
+   * {@link MoshiAdapterFactory#nullSafe()} factory, which wraps them. Nested adapters can only be
+   * linked from the same package. Ignored for delegates resolved with {@link #lazyAdapters}.
+   */
+  boolean linkNestedAdapters() default false;
+
+  /**
+   * Indicates if the generated adapter should read and write {@code List}, {@code Set} and
+   * {@code Map} properties with loops of its own, rather than through Moshi's collection adapters
+   * (default {@code false}).
+   * <p>
+   * This applies to unqualified properties whose elements, or values of maps with {@code String}
+   * keys, are classes without type parameters. Elements of the types the generated adapter inlines
+   * are read and written directly unless {@link #inlineProperties} is off, others through their
+   * adapter, and nulls are handled like Moshi's collection adapters do. Collections are returned
+   * as unmodifiable views, or built as Guava's immutable collections for properties declared as
+   * those, which reject null elements with a {@code JsonDataException}.
+   */
+  boolean inlineCollections() default false;
+}
@@ -0,0 +1,25 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Provides the adapters of the AutoValue types a module's {@link MoshiAdapterFactory} covers to
+ * factories in other modules. Registries are generated for factories annotated with
+ * {@code @MoshiAdapterFactory(registry = true)} and listed as services, so the factories of
+ * {@code @MoshiAdapterFactory(aggregate = true)} can load them from the classpath through
+ * {@link AdapterRegistries#load(ClassLoader)}.
+ */
+public interface MoshiAdapterRegistry {
+  /** Returns the binary names of the types this registry provides adapters for. */
+  Set<String> typeNames();
+
+  /**
+   * Returns the adapter for {@code type}, whose raw type or one of its superclasses is named
+   * {@code typeName}, or {@code null} if {@code type} doesn't supply the type arguments a generic
+   * type needs.
+   */
+  JsonAdapter<?> create(String typeName, Type type, Moshi moshi);
+}
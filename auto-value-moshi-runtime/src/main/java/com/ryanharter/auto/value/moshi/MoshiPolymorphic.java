@@ -0,0 +1,54 @@
+package com.ryanharter.auto.value.moshi;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Generates a JsonAdapter for the annotated base type that reads and writes its subtypes as JSON
+ * objects carrying a label, like Moshi's {@code PolymorphicJsonAdapterFactory}.
+ * <p>
+ * <code><pre>
+ *   &#64;MoshiPolymorphic(labelKey = "type", subtypes = {
+ *       &#64;MoshiPolymorphic.Subtype(type = Click.class, label = "click"),
+ *       &#64;MoshiPolymorphic.Subtype(type = View.class, label = "view")
+ *   })
+ *   &#64;JsonClass(generateAdapter = true, generator = "avm")
+ *   public abstract class Event {
+ *     ...
+ *   }
+ * </pre></code>
+ * <p>
+ * The adapter is named like an external adapter, {@code EventJsonAdapter}, so Moshi finds it
+ * through {@code @JsonClass}, which the annotated type must carry. It resolves the adapters of the
+ * subtypes through {@code Moshi} when it is created, and dispatches to the subtype's adapter
+ * through a switch on the label, selected with options built when the adapter class is
+ * initialized. Like {@code PolymorphicJsonAdapterFactory}, it finds the label with
+ * {@code peekJson()} on every read. Values are written with the label first, so that peek stops
+ * at their first name.
+ */
+@Retention(CLASS)
+@Target(TYPE)
+public @interface MoshiPolymorphic {
+  /** The name holding the label of the subtype. */
+  String labelKey();
+
+  /**
+   * The subtypes of the annotated type and their labels. Values are written as the first of them
+   * they are an instance of, so list subtypes before their own supertypes.
+   */
+  Subtype[] subtypes();
+
+  /** A subtype of a {@link MoshiPolymorphic} type, along with its label. */
+  @Retention(CLASS)
+  @Target({})
+  @interface Subtype {
+    /** The subtype, which must be a class without type parameters. */
+    Class<?> type();
+
+    /** The label identifying {@link #type} in JSON. */
+    String label();
+  }
+}
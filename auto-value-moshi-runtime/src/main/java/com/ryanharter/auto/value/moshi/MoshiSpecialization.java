@@ -0,0 +1,45 @@
+package com.ryanharter.auto.value.moshi;
+
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Declares an instantiation of a generic AutoValue class to generate a dedicated, non-generic
+ * JsonAdapter for, in addition to the generic one.
+ * <p>
+ * <code><pre>
+ *   &#64;MoshiSpecialization(User.class)
+ *   &#64;MoshiSpecialization(Order.class)
+ *   &#64;AutoValue
+ *   public abstract class Response&lt;T&gt; {
+ *     ...
+ *   }
+ * </pre></code>
+ * <p>
+ * The specialized adapter is named after the generic one with the simple names of the type
+ * arguments appended, like {@code MoshiJsonAdapter_User}, and only takes the {@code Moshi}
+ * instance. Properties of the type arguments are resolved when it is created and inlined where
+ * possible, instead of going through the {@code Type[]} of the generic adapter. Generated
+ * factories return it for the declared instantiation ahead of the generic adapter.
+ */
+@Retention(CLASS)
+@Target(TYPE)
+@Repeatable(MoshiSpecialization.List.class)
+public @interface MoshiSpecialization {
+  /**
+   * The type arguments of the instantiation, one for each type parameter of the class in order.
+   * They must be classes without type parameters of their own.
+   */
+  Class<?>[] value();
+
+  /** Holds the {@link MoshiSpecialization}s of a class that declares more than one. */
+  @Retention(CLASS)
+  @Target(TYPE)
+  @interface List {
+    MoshiSpecialization[] value();
+  }
+}
@@ -0,0 +1,135 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import okio.BufferedSink;
+import okio.BufferedSource;
+
+/**
+ * Reads and writes newline-delimited JSON, one document per line, through a single
+ * {@link JsonReader} or {@link JsonWriter} for the whole stream instead of one per line.
+ * <p>
+ * <code><pre>
+ *   NdjsonCodec&lt;Foo&gt; codec = new NdjsonCodec&lt;&gt;(moshi.adapter(Foo.class));
+ *   try (NdjsonCodec.Reader&lt;Foo&gt; reader = codec.reader(source)) {
+ *     Foo[] batch = new Foo[100];
+ *     int count;
+ *     while ((count = reader.read(batch, 0, batch.length)) != -1) {
+ *       process(batch, count);
+ *     }
+ *   }
+ * </pre></code>
+ */
+public final class NdjsonCodec<T> {
+  private final JsonAdapter<T> adapter;
+
+  public NdjsonCodec(JsonAdapter<T> adapter) {
+    this.adapter = adapter;
+  }
+
+  /**
+   * Returns a reader of the documents in {@code source}. The underlying {@link JsonReader} is
+   * lenient, as it has to accept multiple top-level values, so it also accepts the other
+   * malformed JSON described in {@link JsonReader#setLenient(boolean)}.
+   */
+  public Reader<T> reader(BufferedSource source) {
+    JsonReader reader = JsonReader.of(source);
+    reader.setLenient(true);
+    return new Reader<>(reader, adapter);
+  }
+
+  /** Returns a writer of documents to {@code sink}, each followed by a newline. */
+  public Writer<T> writer(BufferedSink sink) {
+    JsonWriter writer = JsonWriter.of(sink);
+    writer.setLenient(true);
+    return new Writer<>(writer, sink, adapter);
+  }
+
+  /** Reads the documents of a newline-delimited JSON stream. */
+  public static final class Reader<T> implements Closeable {
+    private final JsonReader reader;
+    private final JsonAdapter<T> adapter;
+
+    Reader(JsonReader reader, JsonAdapter<T> adapter) {
+      this.reader = reader;
+      this.adapter = adapter;
+    }
+
+    /** Returns true if there is another document to read. */
+    public boolean hasNext() throws IOException {
+      return reader.peek() != JsonReader.Token.END_DOCUMENT;
+    }
+
+    /** Reads the next document. */
+    public T next() throws IOException {
+      return adapter.fromJson(reader);
+    }
+
+    /**
+     * Reads up to {@code count} documents into {@code batch}, starting at {@code offset}, and
+     * returns how many were read, or -1 if the stream has no more documents.
+     */
+    public int read(T[] batch, int offset, int count) throws IOException {
+      if (offset < 0 || count < 0 || offset + count > batch.length) {
+        throw new IndexOutOfBoundsException(
+            "offset " + offset + " and count " + count + " for length " + batch.length);
+      }
+      if (count > 0 && !hasNext()) {
+        return -1;
+      }
+      int read = 0;
+      while (read < count && hasNext()) {
+        batch[offset + read] = adapter.fromJson(reader);
+        read++;
+      }
+      return read;
+    }
+
+    @Override public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /** Writes documents as newline-delimited JSON. */
+  public static final class Writer<T> implements Closeable, Flushable {
+    private final JsonWriter writer;
+    private final BufferedSink sink;
+    private final JsonAdapter<T> adapter;
+
+    Writer(JsonWriter writer, BufferedSink sink, JsonAdapter<T> adapter) {
+      this.writer = writer;
+      this.sink = sink;
+      this.adapter = adapter;
+    }
+
+    /** Writes {@code value} as a document on its own line. */
+    public void write(T value) throws IOException {
+      adapter.toJson(writer, value);
+      // JsonWriter separates top-level values with nothing, and writes straight to the sink
+      sink.writeByte('\n');
+    }
+
+    /** Writes the {@code count} values of {@code batch} starting at {@code offset}. */
+    public void write(T[] batch, int offset, int count) throws IOException {
+      if (offset < 0 || count < 0 || offset + count > batch.length) {
+        throw new IndexOutOfBoundsException(
+            "offset " + offset + " and count " + count + " for length " + batch.length);
+      }
+      for (int i = offset; i < offset + count; i++) {
+        write(batch[i]);
+      }
+    }
+
+    @Override public void flush() throws IOException {
+      writer.flush();
+    }
+
+    @Override public void close() throws IOException {
+      writer.close();
+    }
+  }
+}
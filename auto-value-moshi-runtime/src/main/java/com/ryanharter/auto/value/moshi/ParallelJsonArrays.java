@@ -0,0 +1,262 @@
+package com.ryanharter.auto.value.moshi;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonEncodingException;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import okio.Buffer;
+
+/**
+ * Decodes a large JSON array, held in memory or in a file, on several threads.
+ * <p>
+ * The array is scanned once and cut into chunks of whole elements at top-level commas, which are
+ * decoded concurrently while the scan goes on. The scan waits for the oldest chunk once a few per
+ * thread are in flight, so only that many are copied out of the array at a time. Generated
+ * adapters keep no state between calls, so the same adapter decodes every chunk.
+ * <p>
+ * <code><pre>
+ *   try (FileChannel channel = FileChannel.open(path)) {
+ *     List&lt;Foo&gt; foos = ParallelJsonArrays.decode(channel, adapter, ForkJoinPool.commonPool());
+ *   }
+ * </pre></code>
+ */
+public final class ParallelJsonArrays {
+  /** Chunks per thread, so threads finishing early can take over the remaining work. */
+  private static final int CHUNKS_PER_THREAD = 4;
+  /** Chunks submitted per thread before waiting for the oldest, bounding the memory in use. */
+  private static final int IN_FLIGHT_PER_THREAD = 2;
+  /** Below this size per chunk, decoding isn't worth the scheduling overhead. */
+  private static final long MIN_CHUNK_BYTES = 64 * 1024;
+  /** Above this size per chunk, the copies of the chunks in flight take too much memory. */
+  private static final long MAX_CHUNK_BYTES = 64 * 1024 * 1024;
+  /** The size of the regions of a file mapped at once while scanning it. */
+  private static final long SCAN_WINDOW_BYTES = 256 * 1024 * 1024;
+
+  private ParallelJsonArrays() {
+    throw new AssertionError("No instances.");
+  }
+
+  /**
+   * Decodes the UTF-8 JSON array between the position and limit of {@code json} with
+   * {@code adapter}, running the chunks on {@code pool}. The elements are returned in the order
+   * of the array, and the position of {@code json} is left unchanged.
+   * <p>
+   * Only the array's own structure is checked up front, so malformed elements are reported by the
+   * adapter decoding their chunk.
+   */
+  public static <T> List<T> decode(ByteBuffer json, JsonAdapter<T> adapter, ForkJoinPool pool)
+      throws IOException {
+    ByteBuffer array = json.slice();
+    return decode((offset, byteCount) -> slice(array, (int) offset, (int) (offset + byteCount)),
+        array.remaining(), adapter, pool);
+  }
+
+  /**
+   * Decodes the UTF-8 JSON array making up the whole file of {@code channel} with
+   * {@code adapter}, running the chunks on {@code pool}. The elements are returned in the order
+   * of the array, and the position of {@code channel} is left unchanged.
+   * <p>
+   * The file is mapped in regions, both to scan it and to decode each chunk, so it isn't limited
+   * to the 2 GiB of a single {@link ByteBuffer}. Only a single element can't be larger than that.
+   */
+  public static <T> List<T> decode(FileChannel channel, JsonAdapter<T> adapter, ForkJoinPool pool)
+      throws IOException {
+    return decode(
+        (offset, byteCount) -> channel.map(FileChannel.MapMode.READ_ONLY, offset, byteCount),
+        channel.size(), adapter, pool);
+  }
+
+  private static <T> List<T> decode(Regions regions, long size, JsonAdapter<T> adapter,
+      ForkJoinPool pool) throws IOException {
+    long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES,
+        size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD)));
+    int maxInFlight = pool.getParallelism() * IN_FLIGHT_PER_THREAD;
+    Deque<Future<List<T>>> chunks = new ArrayDeque<>();
+    try {
+      List<T> result = new ArrayList<>();
+      scan(regions, size, chunkBytes, (start, end) -> {
+        if (chunks.size() >= maxInFlight) {
+          result.addAll(join(chunks.removeFirst()));
+        }
+        chunks.addLast(pool.submit(() -> decodeChunk(regions, start, end, adapter)));
+      });
+      while (!chunks.isEmpty()) {
+        result.addAll(join(chunks.removeFirst()));
+      }
+      return result;
+    } finally {
+      // Only has an effect after a failure, sparing the chunks that haven't started yet
+      for (Future<List<T>> chunk : chunks) {
+        chunk.cancel(false);
+      }
+    }
+  }
+
+  private static <T> List<T> join(Future<List<T>> chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while decoding", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Decodes the elements between {@code start} and {@code end}, which include the commas between
+   * them, by reading them as an array of their own.
+   */
+  private static <T> List<T> decodeChunk(Regions regions, long start, long end,
+      JsonAdapter<T> adapter) throws IOException {
+    if (end - start > Integer.MAX_VALUE) {
+      throw new IOException("Element at offset " + start + " is larger than 2 GiB");
+    }
+    Buffer buffer = new Buffer().writeByte('[');
+    buffer.write(regions.map(start, end - start));
+    buffer.writeByte(']');
+
+    List<T> elements = new ArrayList<>();
+    JsonArrays.forEach(JsonReader.of(buffer), adapter, elements::add);
+    return elements;
+  }
+
+  /**
+   * Scans the array in the {@code size} bytes of {@code regions}, passing each run of elements to
+   * {@code chunks} once it spans at least {@code chunkBytes}. Strings and nesting are tracked to
+   * skip the commas and brackets inside elements. Only whitespace may follow the array.
+   */
+  private static void scan(Regions regions, long size, long chunkBytes, Chunks chunks)
+      throws IOException {
+    long chunkStart = -1;
+    boolean chunkEmpty = true;
+    boolean cut = false;
+    int depth = 0;
+    boolean inString = false;
+    boolean escaped = false;
+    boolean closed = false;
+    for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW_BYTES) {
+      ByteBuffer window =
+          regions.map(windowStart, Math.min(SCAN_WINDOW_BYTES, size - windowStart));
+      for (int i = 0, limit = window.limit(); i < limit; i++) {
+        byte b = window.get(i);
+        if (inString) {
+          if (escaped) {
+            escaped = false;
+          } else if (b == '\\') {
+            escaped = true;
+          } else if (b == '"') {
+            inString = false;
+          }
+          continue;
+        }
+        if (isWhitespace(b)) {
+          continue;
+        }
+        long offset = windowStart + i;
+        if (closed) {
+          throw new JsonEncodingException("Unexpected data after the array at offset " + offset);
+        }
+        if (chunkStart == -1) {
+          if (b != '[') {
+            throw new JsonEncodingException("Expected a JSON array at offset " + offset);
+          }
+          chunkStart = offset + 1;
+          continue;
+        }
+        switch (b) {
+          case '"':
+            inString = true;
+            break;
+          case '{':
+          case '[':
+            depth++;
+            break;
+          case '}':
+          case ']':
+            if (depth > 0) {
+              depth--;
+              break;
+            }
+            if (b == '}') {
+              throw new JsonEncodingException("Unexpected '}' at offset " + offset);
+            }
+            // The end of the array itself
+            if (!chunkEmpty) {
+              chunks.add(chunkStart, offset);
+            } else if (cut) {
+              throw new JsonEncodingException("Expected a value at offset " + offset);
+            }
+            closed = true;
+            continue;
+          case ',':
+            if (depth == 0 && offset - chunkStart >= chunkBytes) {
+              if (chunkEmpty) {
+                throw new JsonEncodingException("Expected a value at offset " + offset);
+              }
+              chunks.add(chunkStart, offset);
+              cut = true;
+              chunkStart = offset + 1;
+              chunkEmpty = true;
+              continue;
+            }
+            break;
+          default:
+            break;
+        }
+        chunkEmpty = false;
+      }
+    }
+    if (closed) {
+      return;
+    }
+    if (chunkStart == -1) {
+      throw new JsonEncodingException("Expected a JSON array at offset " + size);
+    }
+    throw new JsonEncodingException("Unterminated JSON array");
+  }
+
+  /**
+   * Returns the bytes of {@code buffer} between {@code start} and {@code end}. The bounds are set
+   * through {@link java.nio.Buffer}, as the covariant overrides {@link ByteBuffer} gained in Java 9
+   * don't exist on Java 8 and Android.
+   */
+  private static ByteBuffer slice(ByteBuffer buffer, int start, int end) {
+    ByteBuffer region = buffer.duplicate();
+    java.nio.Buffer bounds = region;
+    bounds.limit(end);
+    bounds.position(start);
+    return region.slice();
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  /** The input of an array, mapped one region at a time. */
+  private interface Regions {
+    ByteBuffer map(long offset, long byteCount) throws IOException;
+  }
+
+  /** Receives the start and end offsets of each chunk of elements as the array is scanned. */
+  private interface Chunks {
+    void add(long start, long end) throws IOException;
+  }
+}
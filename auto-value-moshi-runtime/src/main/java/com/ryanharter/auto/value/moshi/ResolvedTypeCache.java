@@ -0,0 +1,51 @@
+package com.ryanharter.auto.value.moshi;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the property types a generated adapter of a generic type resolved for its type
+ * arguments, so adapters created again for the same arguments, like one per {@code Moshi}
+ * instance, don't rebuild them.
+ * <p>
+ * The least recently used arguments are dropped once the cache holds {@code maxSize} of them.
+ * Adapters aren't cached, as they belong to the {@code Moshi} instance that created them.
+ */
+public final class ResolvedTypeCache {
+  private final Map<List<Type>, Type[]> resolved;
+
+  public ResolvedTypeCache(final int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize <= 0: " + maxSize);
+    }
+    resolved = new LinkedHashMap<List<Type>, Type[]>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<List<Type>, Type[]> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the types resolved for {@code typeArguments}, or null if they aren't cached. Type
+   * arguments are compared with {@code equals}, which Moshi's and the JDK's implementations of
+   * {@link java.lang.reflect.ParameterizedType} agree on.
+   */
+  public Type[] get(Type[] typeArguments) {
+    synchronized (resolved) {
+      return resolved.get(Arrays.asList(typeArguments));
+    }
+  }
+
+  /** Caches and returns the {@code types} resolved for {@code typeArguments}. */
+  public Type[] put(Type[] typeArguments, Type[] types) {
+    // Copied, so changes to the caller's array don't change the key
+    List<Type> key = Arrays.asList(typeArguments.clone());
+    synchronized (resolved) {
+      resolved.put(key, types);
+    }
+    return types;
+  }
+}
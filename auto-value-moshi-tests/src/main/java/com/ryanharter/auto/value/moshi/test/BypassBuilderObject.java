@@ -0,0 +1,31 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+@MoshiAdapterOptions(bypassBuilder = true)
+@AutoValue
+public abstract class BypassBuilderObject {
+  public abstract String name();
+
+  public abstract int retries();
+
+  public static Builder builder() {
+    return new AutoValue_BypassBuilderObject.Builder().retries(3);
+  }
+
+  public static JsonAdapter<BypassBuilderObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_BypassBuilderObject.MoshiJsonAdapter(moshi);
+  }
+
+  @AutoValue.Builder
+  public abstract static class Builder {
+    public abstract Builder name(String name);
+
+    public abstract Builder retries(int retries);
+
+    public abstract BypassBuilderObject build();
+  }
+}
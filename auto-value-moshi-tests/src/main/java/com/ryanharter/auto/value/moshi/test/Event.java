@@ -0,0 +1,34 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiPolymorphic;
+import com.squareup.moshi.JsonClass;
+
+@MoshiPolymorphic(labelKey = "type", subtypes = {
+    @MoshiPolymorphic.Subtype(type = Event.Click.class, label = "click"),
+    @MoshiPolymorphic.Subtype(type = Event.View.class, label = "view")
+})
+@JsonClass(generateAdapter = true, generator = "avm")
+public abstract class Event {
+
+  @JsonClass(generateAdapter = true, generator = "avm")
+  @AutoValue
+  public abstract static class Click extends Event {
+    public abstract String target();
+
+    public static Click create(String target) {
+      return new AutoValue_Event_Click(target);
+    }
+  }
+
+  @JsonClass(generateAdapter = true, generator = "avm")
+  @AutoValue
+  public abstract static class View extends Event {
+    public abstract String page();
+    public abstract long durationMs();
+
+    public static View create(String page, long durationMs) {
+      return new AutoValue_Event_View(page, durationMs);
+    }
+  }
+}
@@ -16,4 +16,22 @@ public abstract class FunctionalTestsAdapterFactory implements JsonAdapter.Facto
       return new AutoValueMoshi_FunctionalTestsAdapterFactory_NestedFactoryForNaming();
     }
   }
+
+  @MoshiAdapterFactory(nullSafe = true)
+  public abstract static class NullSafeFactory implements JsonAdapter.Factory {
+    public static JsonAdapter.Factory create() {
+      return new AutoValueMoshi_FunctionalTestsAdapterFactory_NullSafeFactory();
+    }
+  }
+
+  @MoshiAdapterFactory(registry = true)
+  public abstract static class RegistryFactory implements JsonAdapter.Factory {
+  }
+
+  @MoshiAdapterFactory(aggregate = true)
+  public abstract static class AggregatingFactory implements JsonAdapter.Factory {
+    public static JsonAdapter.Factory create() {
+      return new AutoValueMoshi_FunctionalTestsAdapterFactory_AggregatingFactory();
+    }
+  }
 }
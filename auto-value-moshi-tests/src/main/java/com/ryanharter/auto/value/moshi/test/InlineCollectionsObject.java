@@ -0,0 +1,28 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+@MoshiAdapterOptions(inlineCollections = true)
+@AutoValue
+public abstract class InlineCollectionsObject {
+  public abstract List<String> names();
+
+  public abstract List<Long> ids();
+
+  public abstract Set<ValueInValueObject.Value> values();
+
+  public abstract Map<String, Double> scores();
+
+  @Nullable public abstract List<String> tags();
+
+  public static JsonAdapter<InlineCollectionsObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_InlineCollectionsObject.MoshiJsonAdapter(moshi);
+  }
+}
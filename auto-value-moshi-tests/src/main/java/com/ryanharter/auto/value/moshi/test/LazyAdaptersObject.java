@@ -0,0 +1,21 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+@MoshiAdapterOptions(lazyAdapters = true)
+@AutoValue
+public abstract class LazyAdaptersObject {
+  public abstract String name();
+
+  @Nullable public abstract List<String> tags();
+
+  public static JsonAdapter<LazyAdaptersObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_LazyAdaptersObject.MoshiJsonAdapter(moshi);
+  }
+}
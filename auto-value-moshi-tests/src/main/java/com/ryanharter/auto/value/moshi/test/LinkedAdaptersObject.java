@@ -0,0 +1,19 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import javax.annotation.Nullable;
+
+@MoshiAdapterOptions(linkNestedAdapters = true)
+@AutoValue
+public abstract class LinkedAdaptersObject {
+  public abstract ValueInValueObject.Value value();
+
+  @Nullable public abstract ValueInValueObject.Value fallback();
+
+  public static JsonAdapter<LinkedAdaptersObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_LinkedAdaptersObject.MoshiJsonAdapter(moshi);
+  }
+}
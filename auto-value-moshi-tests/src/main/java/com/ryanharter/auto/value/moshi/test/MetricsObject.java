@@ -0,0 +1,19 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import javax.annotation.Nullable;
+
+@MoshiAdapterOptions(reportMetrics = true)
+@AutoValue
+public abstract class MetricsObject {
+  public abstract String name();
+  @Nullable public abstract String nickname();
+  @Nullable public abstract Integer age();
+
+  public static JsonAdapter<MetricsObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_MetricsObject.MoshiJsonAdapter(moshi);
+  }
+}
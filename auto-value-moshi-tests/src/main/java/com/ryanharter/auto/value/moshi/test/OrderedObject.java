@@ -0,0 +1,26 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+@MoshiAdapterOptions(predictFieldOrder = true)
+@AutoValue
+public abstract class OrderedObject {
+  public abstract long id();
+
+  @Json(name = "display_name") public abstract String displayName();
+
+  @Nullable public abstract List<String> tags();
+
+  public abstract boolean active();
+
+  public static JsonAdapter<OrderedObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_OrderedObject.MoshiJsonAdapter(moshi);
+  }
+}
@@ -0,0 +1,16 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiSpecialization;
+import com.squareup.moshi.JsonClass;
+import java.util.List;
+
+@MoshiSpecialization(String.class)
+@MoshiSpecialization(ValueInValueObject.Value.class)
+@JsonClass(generateAdapter = true, generator = "avm")
+@AutoValue
+public abstract class SpecializedEnvelope<T> {
+  public abstract T data();
+  public abstract List<T> items();
+  public abstract int code();
+}
@@ -0,0 +1,16 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+@MoshiAdapterOptions(reportUnknownFields = true)
+@AutoValue
+public abstract class UnknownFieldsObject {
+  public abstract String name();
+
+  public static JsonAdapter<UnknownFieldsObject> jsonAdapter(Moshi moshi) {
+    return new AutoValue_UnknownFieldsObject.MoshiJsonAdapter(moshi);
+  }
+}
@@ -1,19 +1,46 @@
 package com.ryanharter.auto.value.moshi.test;
 
+import com.ryanharter.auto.value.moshi.AdapterMetrics;
+import com.ryanharter.auto.value.moshi.AdapterRegistries;
+import com.ryanharter.auto.value.moshi.MoshiAdapterRegistry;
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 import com.squareup.moshi.internal.NullSafeJsonAdapter;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
+import static org.junit.Assert.fail;
 
 public final class AutoValueMoshiFunctionalTest {
+  /** Registered in place of the generated adapter of {@link ValueInValueObject.Value}. */
+  private static final JsonAdapter<ValueInValueObject.Value> VALUE_AS_STRING =
+      new JsonAdapter<ValueInValueObject.Value>() {
+        @Override public ValueInValueObject.Value fromJson(JsonReader reader) throws IOException {
+          return new AutoValue_ValueInValueObject_Value(reader.nextString());
+        }
+
+        @Override public void toJson(JsonWriter writer, ValueInValueObject.Value value)
+            throws IOException {
+          writer.value(value.a());
+        }
+      };
+
   private final Moshi moshi = new Moshi.Builder()
       .add(FunctionalTestsAdapterFactory.create())
       .add(new ReverseList.JsonAdapter())
@@ -194,6 +221,28 @@ public final class AutoValueMoshiFunctionalTest {
     assertThat(fromJson.nullableClass()).isNull();
   }
 
+  @Test
+  public void nullableStringNull() throws Exception {
+    JsonAdapter<NullableClass> adapter = moshi.adapter(NullableClass.class);
+
+    NullableClass fromJson = adapter.fromJson("{\"string\":null}");
+
+    assertThat(fromJson.string()).isNull();
+    assertThat(adapter.toJson(fromJson)).isEqualTo("{}");
+  }
+
+  @Test
+  public void nonNullStringRejectsNull() throws Exception {
+    JsonAdapter<WithNullableClass> adapter = moshi.adapter(WithNullableClass.class);
+
+    try {
+      adapter.fromJson("{\"value\":null}");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessageContaining("$.value");
+    }
+  }
+
   @Test
   public void objectWithNullableClassAndJsonQualifier() throws Exception {
     JsonAdapter<WithNullableClassAndJsonQualifier> adapter =
@@ -220,6 +269,182 @@ public final class AutoValueMoshiFunctionalTest {
     assertThat(fromJson.list()).isNull();
   }
 
+  @Test
+  public void factoryResolvesSubclassesAndIgnoresUnknownTypes() {
+    JsonAdapter.Factory factory = FunctionalTestsAdapterFactory.create();
+    Set<Annotation> noAnnotations = Collections.emptySet();
+
+    assertThat(factory.create(WithNullableClass.class, noAnnotations, moshi)).isNotNull();
+    assertThat(factory.create(AutoValue_WithNullableClass.class, noAnnotations, moshi)).isNotNull();
+    assertThat(factory.create(String.class, noAnnotations, moshi)).isNull();
+    assertThat(factory.create(ArrayList.class, noAnnotations, moshi)).isNull();
+  }
+
+  @Test
+  public void sharedFactoryResolvesDelegatesPerMoshiInstance() throws Exception {
+    JsonAdapter.Factory factory = FunctionalTestsAdapterFactory.create();
+    Moshi first = new Moshi.Builder().add(factory).build();
+    Moshi sibling = new Moshi.Builder()
+        .add(ValueInValueObject.Value.class, VALUE_AS_STRING)
+        .add(factory)
+        .build();
+
+    assertThat(first.adapter(ValueInValueObject.class).fromJson("{\"value\":{\"a\":\"a\"}}")
+        .value().a()).isEqualTo("a");
+    assertThat(sibling.adapter(ValueInValueObject.class).fromJson("{\"value\":\"a\"}")
+        .value().a()).isEqualTo("a");
+  }
+
+  @Test
+  public void registriesLoadedFromClasspath() throws Exception {
+    Map<String, MoshiAdapterRegistry> registries =
+        AdapterRegistries.load(getClass().getClassLoader());
+    MoshiAdapterRegistry registry = registries.get(WithNullableClass.class.getName());
+    assertThat(registry)
+        .isInstanceOf(AutoValueMoshi_FunctionalTestsAdapterFactory_RegistryFactoryRegistry.class);
+
+    JsonAdapter<?> adapter = registry.create(WithNullableClass.class.getName(),
+        AutoValue_WithNullableClass.class, moshi);
+    assertThat(((WithNullableClass) adapter.fromJson("{\"value\":\"value\"}")).value())
+        .isEqualTo("value");
+  }
+
+  @Test
+  public void aggregatingFactoryResolvesTypes() throws Exception {
+    Moshi moshi = new Moshi.Builder()
+        .add(FunctionalTestsAdapterFactory.AggregatingFactory.create())
+        .build();
+
+    JsonAdapter<WithNullableClass> adapter = moshi.adapter(WithNullableClass.class);
+    assertThat(adapter.fromJson("{\"value\":\"value\"}").value()).isEqualTo("value");
+  }
+
+  @Test
+  public void lazyAdaptersResolvedOnFirstUse() throws Exception {
+    final List<Type> requested = new ArrayList<>();
+    Moshi moshi = this.moshi.newBuilder()
+        .add(new JsonAdapter.Factory() {
+          @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+              Moshi moshi) {
+            requested.add(type);
+            return null;
+          }
+        })
+        .build();
+    JsonAdapter<LazyAdaptersObject> adapter = moshi.adapter(LazyAdaptersObject.class);
+    Type tagsType = Types.newParameterizedType(List.class, String.class);
+    assertThat(requested).doesNotContain(tagsType);
+
+    LazyAdaptersObject fromJson = adapter.fromJson("{\"name\":\"lazy\"}");
+    assertThat(fromJson.name()).isEqualTo("lazy");
+    assertThat(fromJson.tags()).isNull();
+    assertThat(requested).doesNotContain(tagsType);
+
+    fromJson = adapter.fromJson("{\"name\":\"lazy\",\"tags\":[\"a\",\"b\"]}");
+    assertThat(fromJson.tags()).containsExactly("a", "b");
+    assertThat(requested).contains(tagsType);
+    assertThat(adapter.toJson(fromJson)).isEqualTo("{\"name\":\"lazy\",\"tags\":[\"a\",\"b\"]}");
+  }
+
+  @Test
+  public void unknownFieldsReportedToMetrics() throws Exception {
+    final Map<Class<?>, Integer> skipped = new HashMap<>();
+    AdapterMetrics.install(new AdapterMetrics() {
+      @Override public void onUnknownFieldsSkipped(Class<?> type, int count) {
+        skipped.put(type, count);
+      }
+    });
+    try {
+      JsonAdapter<UnknownFieldsObject> adapter = moshi.adapter(UnknownFieldsObject.class);
+
+      adapter.fromJson("{\"name\":\"known\"}");
+      assertThat(skipped).isEmpty();
+
+      UnknownFieldsObject fromJson = adapter.fromJson("{\"id\":1,\"name\":\"known\","
+          + "\"tags\":[\"a\",\"b\"],\"nested\":{\"name\":\"unknown\"}}");
+      assertThat(fromJson.name()).isEqualTo("known");
+      assertThat(skipped).containsExactly(entry(UnknownFieldsObject.class, 3));
+    } finally {
+      AdapterMetrics.install(null);
+    }
+  }
+
+  @Test
+  public void metricsReportedWhenInstalled() throws Exception {
+    final List<String> events = new ArrayList<>();
+    JsonAdapter<MetricsObject> adapter = moshi.adapter(MetricsObject.class);
+    String json = "{\"name\":\"metrics\",\"nickname\":null,\"age\":null,\"id\":1}";
+
+    // Nothing is collected for metrics that aren't installed
+    assertThat(adapter.fromJson(json).name()).isEqualTo("metrics");
+
+    AdapterMetrics.install(new AdapterMetrics() {
+      @Override public void onUnknownFieldsSkipped(Class<?> type, int count) {
+        events.add("skipped " + type.getSimpleName() + " " + count);
+      }
+
+      @Override public void onNullsRead(Class<?> type, int count) {
+        events.add("nulls " + type.getSimpleName() + " " + count);
+      }
+
+      @Override public void onRead(Class<?> type, long nanos) {
+        assertThat(nanos).isGreaterThanOrEqualTo(0);
+        events.add("read " + type.getSimpleName());
+      }
+
+      @Override public void onWritten(Class<?> type, long nanos) {
+        assertThat(nanos).isGreaterThanOrEqualTo(0);
+        events.add("written " + type.getSimpleName());
+      }
+    });
+    try {
+      MetricsObject fromJson = adapter.fromJson(json);
+      assertThat(events).containsExactly(
+          "skipped MetricsObject 1", "nulls MetricsObject 2", "read MetricsObject");
+
+      events.clear();
+      assertThat(adapter.toJson(fromJson)).isEqualTo("{\"name\":\"metrics\"}");
+      assertThat(events).containsExactly("written MetricsObject");
+    } finally {
+      AdapterMetrics.install(null);
+    }
+  }
+
+  @Test
+  public void predictedFieldOrderReadsAnyOrder() throws Exception {
+    JsonAdapter<OrderedObject> adapter = moshi.adapter(OrderedObject.class);
+    String ordered = "{\"id\":1,\"display_name\":\"name\",\"tags\":[\"a\"],\"active\":true}";
+
+    OrderedObject fromJson = adapter.fromJson(ordered);
+    assertThat(fromJson.id()).isEqualTo(1L);
+    assertThat(fromJson.displayName()).isEqualTo("name");
+    assertThat(fromJson.tags()).containsExactly("a");
+    assertThat(fromJson.active()).isTrue();
+    assertThat(adapter.toJson(fromJson)).isEqualTo(ordered);
+
+    OrderedObject shuffled = adapter.fromJson("{\"active\":true,\"unknown\":0,\"id\":1,"
+        + "\"display_name\":\"name\",\"extra\":{\"id\":2},\"tags\":[\"a\"]}");
+    assertThat(shuffled).isEqualTo(fromJson);
+  }
+
+  @Test
+  public void bypassBuilderFallsBackToBuilderDefaults() throws Exception {
+    JsonAdapter<BypassBuilderObject> adapter = moshi.adapter(BypassBuilderObject.class);
+
+    BypassBuilderObject complete = adapter.fromJson("{\"name\":\"a\",\"retries\":5}");
+    assertThat(complete).isEqualTo(BypassBuilderObject.builder().name("a").retries(5).build());
+
+    BypassBuilderObject defaulted = adapter.fromJson("{\"name\":\"a\"}");
+    assertThat(defaulted.retries()).isEqualTo(3);
+
+    try {
+      adapter.fromJson("{\"retries\":5}");
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageContaining("name");
+    }
+  }
+
   @Test
   public void nativeMoshiLookup() {
     JsonAdapter<NativeMoshiClass> adapter = moshi.adapter(NativeMoshiClass.class);
@@ -236,6 +461,200 @@ public final class AutoValueMoshiFunctionalTest {
     assertThat(nestedAdapter.getClass()).isSameAs(NativeMoshiClass_NestedJsonAdapter.class);
   }
 
+  @Test
+  public void factoryConstructsNativeMoshiAdapters() {
+    JsonAdapter.Factory factory = FunctionalTestsAdapterFactory.create();
+    Set<Annotation> noAnnotations = Collections.emptySet();
+
+    assertThat(factory.create(NativeMoshiClass.class, noAnnotations, moshi))
+        .isInstanceOf(NativeMoshiClassJsonAdapter.class);
+    assertThat(factory.create(NativeMoshiClass.Nested.class, noAnnotations, moshi))
+        .isInstanceOf(NativeMoshiClass_NestedJsonAdapter.class);
+    Type generic = Types.newParameterizedType(GenericNativeMoshiClass.class, String.class);
+    assertThat(factory.create(generic, noAnnotations, moshi))
+        .isInstanceOf(GenericNativeMoshiClassJsonAdapter.class);
+  }
+
+  @Test
+  public void factoryConstructsSpecializedAdapters() {
+    JsonAdapter.Factory factory = FunctionalTestsAdapterFactory.create();
+    Set<Annotation> noAnnotations = Collections.emptySet();
+
+    Type strings = Types.newParameterizedType(SpecializedEnvelope.class, String.class);
+    assertThat(factory.create(strings, noAnnotations, moshi))
+        .isInstanceOf(SpecializedEnvelopeJsonAdapter_String.class);
+    Type values = Types.newParameterizedType(SpecializedEnvelope.class,
+        ValueInValueObject.Value.class);
+    assertThat(factory.create(values, noAnnotations, moshi))
+        .isInstanceOf(SpecializedEnvelopeJsonAdapter_ValueInValueObject_Value.class);
+    Type integers = Types.newParameterizedType(SpecializedEnvelope.class, Integer.class);
+    assertThat(factory.create(integers, noAnnotations, moshi))
+        .isInstanceOf(SpecializedEnvelopeJsonAdapter.class);
+  }
+
+  @Test
+  public void specializedAdapter() throws Exception {
+    JsonAdapter<SpecializedEnvelope<String>> adapter = moshi.adapter(
+        Types.newParameterizedType(SpecializedEnvelope.class, String.class));
+    String json = "{\"data\":\"a\",\"items\":[\"b\",\"c\"],\"code\":200}";
+
+    SpecializedEnvelope<String> envelope = adapter.fromJson(json);
+    assertThat(envelope.data()).isEqualTo("a");
+    assertThat(envelope.items()).containsExactly("b", "c");
+    assertThat(envelope.code()).isEqualTo(200);
+    assertThat(adapter.toJson(envelope)).isEqualTo(json);
+  }
+
+  @Test
+  public void polymorphicAdapter() throws Exception {
+    JsonAdapter<Event> adapter = moshi.adapter(Event.class);
+
+    assertThat(adapter.fromJson("{\"target\":\"buy\",\"type\":\"click\"}"))
+        .isEqualTo(Event.Click.create("buy"));
+    assertThat(adapter.fromJson("{\"type\":\"view\",\"page\":\"home\",\"durationMs\":1500}"))
+        .isEqualTo(Event.View.create("home", 1500));
+    assertThat(adapter.toJson(Event.View.create("home", 1500)))
+        .isEqualTo("{\"type\":\"view\",\"page\":\"home\",\"durationMs\":1500}");
+    assertThat(adapter.toJson(Event.Click.create("buy")))
+        .isEqualTo("{\"type\":\"click\",\"target\":\"buy\"}");
+  }
+
+  @Test
+  public void polymorphicAdapterRejectsUnknownLabels() throws Exception {
+    JsonAdapter<Event> adapter = moshi.adapter(Event.class);
+
+    try {
+      adapter.fromJson("{\"type\":\"scroll\"}");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessage("Expected one of [click, view] for key 'type' but found "
+          + "'scroll'. Register a subtype for this label.");
+    }
+    try {
+      adapter.fromJson("{\"target\":\"buy\"}");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessage("Missing label for type");
+    }
+  }
+
+  @Test
+  public void linkNestedAdapters() throws Exception {
+    JsonAdapter<LinkedAdaptersObject> adapter = moshi.adapter(LinkedAdaptersObject.class);
+    assertThat(linkedAdapter(adapter, "valueLinkedAdapter"))
+        .isInstanceOf(AutoValue_ValueInValueObject_Value.MoshiJsonAdapter.class);
+
+    String json = "{\"value\":{\"a\":\"one\"},\"fallback\":{\"a\":\"two\"}}";
+    LinkedAdaptersObject fromJson = adapter.fromJson(json);
+    assertThat(fromJson.value().a()).isEqualTo("one");
+    assertThat(fromJson.fallback().a()).isEqualTo("two");
+    assertThat(adapter.toJson(fromJson)).isEqualTo(json);
+
+    LinkedAdaptersObject withNull =
+        adapter.fromJson("{\"value\":{\"a\":\"one\"},\"fallback\":null}");
+    assertThat(withNull.fallback()).isNull();
+    assertThat(adapter.toJson(withNull)).isEqualTo("{\"value\":{\"a\":\"one\"}}");
+  }
+
+  @Test
+  public void linkNestedAdaptersKeepsRegisteredAdapters() throws Exception {
+    Moshi moshi = new Moshi.Builder()
+        .add(ValueInValueObject.Value.class, VALUE_AS_STRING)
+        .add(FunctionalTestsAdapterFactory.create())
+        .build();
+    JsonAdapter<LinkedAdaptersObject> adapter = moshi.adapter(LinkedAdaptersObject.class);
+    assertThat(linkedAdapter(adapter, "valueLinkedAdapter")).isNull();
+
+    String json = "{\"value\":\"one\",\"fallback\":\"two\"}";
+    LinkedAdaptersObject fromJson = adapter.fromJson(json);
+    assertThat(fromJson.value().a()).isEqualTo("one");
+    assertThat(fromJson.fallback().a()).isEqualTo("two");
+    assertThat(adapter.toJson(fromJson)).isEqualTo(json);
+  }
+
+  @Test
+  public void linkNestedAdaptersSkipsNullSafeFactoryAdapters() throws Exception {
+    Moshi moshi = new Moshi.Builder()
+        .add(FunctionalTestsAdapterFactory.NullSafeFactory.create())
+        .build();
+    // The factory wraps the outer adapter too, so create it directly to inspect it
+    JsonAdapter<LinkedAdaptersObject> adapter =
+        new AutoValue_LinkedAdaptersObject.MoshiJsonAdapter(moshi);
+    assertThat(linkedAdapter(adapter, "valueLinkedAdapter")).isNull();
+
+    String json = "{\"value\":{\"a\":\"one\"},\"fallback\":{\"a\":\"two\"}}";
+    LinkedAdaptersObject fromJson = adapter.fromJson(json);
+    assertThat(fromJson.value().a()).isEqualTo("one");
+    assertThat(fromJson.fallback().a()).isEqualTo("two");
+    assertThat(adapter.toJson(fromJson)).isEqualTo(json);
+  }
+
+  @Test
+  public void inlineCollections() throws Exception {
+    JsonAdapter<InlineCollectionsObject> adapter = moshi.adapter(InlineCollectionsObject.class);
+    String json = "{\"names\":[\"a\",\"b\"],\"ids\":[1,9223372036854775807],"
+        + "\"values\":[{\"a\":\"x\"},{\"a\":\"y\"}],\"scores\":{\"math\":1.5,\"art\":2.0}}";
+
+    InlineCollectionsObject fromJson = adapter.fromJson(json);
+    assertThat(fromJson.names()).containsExactly("a", "b");
+    assertThat(fromJson.ids()).containsExactly(1L, Long.MAX_VALUE);
+    assertThat(fromJson.values()).hasSize(2);
+    assertThat(fromJson.values().iterator().next().a()).isEqualTo("x");
+    assertThat(fromJson.scores()).containsExactly(entry("math", 1.5), entry("art", 2.0));
+    assertThat(fromJson.tags()).isNull();
+    assertThat(adapter.toJson(fromJson)).isEqualTo(json);
+
+    try {
+      fromJson.names().add("c");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void inlineCollectionsKeepNullElements() throws Exception {
+    JsonAdapter<InlineCollectionsObject> adapter = moshi.adapter(InlineCollectionsObject.class);
+
+    InlineCollectionsObject fromJson = adapter.fromJson("{\"names\":[\"a\",null],"
+        + "\"ids\":[null,2],\"values\":[],\"scores\":{\"math\":null}}");
+    assertThat(fromJson.names()).containsExactly("a", null);
+    assertThat(fromJson.ids()).containsExactly(null, 2L);
+    assertThat(fromJson.scores()).containsExactly(entry("math", null));
+    // Like Moshi's MapJsonAdapter, null map values are only written with serializeNulls
+    assertThat(adapter.toJson(fromJson))
+        .isEqualTo("{\"names\":[\"a\",null],\"ids\":[null,2],\"values\":[],\"scores\":{}}");
+  }
+
+  @Test
+  public void inlineCollectionsRejectNullMapKeys() throws Exception {
+    JsonAdapter<InlineCollectionsObject> adapter = moshi.adapter(InlineCollectionsObject.class);
+    Map<String, Double> scores = new HashMap<>();
+    scores.put(null, 1.0);
+    InlineCollectionsObject value = new AutoValue_InlineCollectionsObject(
+        Collections.<String>emptyList(), Collections.<Long>emptyList(),
+        Collections.<ValueInValueObject.Value>emptySet(), scores, null);
+
+    try {
+      adapter.toJson(value);
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessageStartingWith("Map key is null at $.scores");
+    }
+  }
+
+  @Test
+  public void inlineCollectionsRejectDuplicateMapKeys() throws Exception {
+    JsonAdapter<InlineCollectionsObject> adapter = moshi.adapter(InlineCollectionsObject.class);
+
+    try {
+      adapter.fromJson("{\"scores\":{\"math\":1.5,\"math\":2.0}}");
+      fail();
+    } catch (JsonDataException expected) {
+      assertThat(expected).hasMessage(
+          "Map key 'math' has multiple values at path $.scores.math: 1.5 and 2.0");
+    }
+  }
+
   @Test
   public void genericNativeMoshiLookup() {
     JsonAdapter<GenericNativeMoshiClass<String>> adapter = moshi.adapter(
@@ -256,4 +675,11 @@ public final class AutoValueMoshiFunctionalTest {
     }
     assertThat(nestedAdapter.getClass()).isSameAs(GenericNativeMoshiClass_NestedJsonAdapter.class);
   }
+
+  /** Returns the adapter the generated {@code adapter} linked in its {@code field}, if any. */
+  private static Object linkedAdapter(JsonAdapter<?> adapter, String field) throws Exception {
+    Field linked = adapter.getClass().getDeclaredField(field);
+    linked.setAccessible(true);
+    return linked.get(adapter);
+  }
 }
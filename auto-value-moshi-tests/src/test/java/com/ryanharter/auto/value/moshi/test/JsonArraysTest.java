@@ -0,0 +1,71 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.ryanharter.auto.value.moshi.JsonArrays;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.Moshi;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import okio.Buffer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class JsonArraysTest {
+  private static final String JSON = "{\"items\":["
+      + "{\"value\":\"one\"},"
+      + "{\"value\":\"two\",\"nullableClass\":{\"string\":\"nested\"}},"
+      + "{\"value\":\"three\"}"
+      + "],\"after\":true}";
+
+  private final Moshi moshi = new Moshi.Builder()
+      .add(FunctionalTestsAdapterFactory.create())
+      .build();
+  private final JsonAdapter<WithNullableClass> adapter = moshi.adapter(WithNullableClass.class);
+
+  @Test public void forEach() throws Exception {
+    JsonReader reader = readerAtItems();
+
+    final List<String> values = new ArrayList<>();
+    JsonArrays.forEach(reader, adapter, element -> values.add(element.value()));
+
+    assertThat(values).containsExactly("one", "two", "three");
+    assertReaderAfterItems(reader);
+  }
+
+  @Test public void iterator() throws Exception {
+    JsonReader reader = readerAtItems();
+
+    Iterator<WithNullableClass> iterator = JsonArrays.iterator(reader, adapter);
+    assertThat(iterator.next().value()).isEqualTo("one");
+    assertThat(iterator.hasNext()).isTrue();
+    WithNullableClass second = iterator.next();
+    assertThat(second.nullableClass().string()).isEqualTo("nested");
+    assertThat(iterator.next().value()).isEqualTo("three");
+    assertThat(iterator.hasNext()).isFalse();
+    assertThat(iterator.hasNext()).isFalse();
+    try {
+      iterator.next();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+
+    assertReaderAfterItems(reader);
+  }
+
+  private JsonReader readerAtItems() throws Exception {
+    JsonReader reader = JsonReader.of(new Buffer().writeUtf8(JSON));
+    reader.beginObject();
+    assertThat(reader.nextName()).isEqualTo("items");
+    return reader;
+  }
+
+  private static void assertReaderAfterItems(JsonReader reader) throws Exception {
+    assertThat(reader.nextName()).isEqualTo("after");
+    assertThat(reader.nextBoolean()).isTrue();
+    reader.endObject();
+  }
+}
@@ -0,0 +1,44 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.ryanharter.auto.value.moshi.JsonBuffers;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonEncodingException;
+import com.squareup.moshi.Moshi;
+import okio.Buffer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class JsonBuffersTest {
+  private static final String FIRST = "{\"value\":\"one\"}";
+  private static final String SECOND = "{\"value\":\"two\",\"nullableClass\":{\"string\":\"nested\"}}";
+
+  private final Moshi moshi = new Moshi.Builder()
+      .add(FunctionalTestsAdapterFactory.create())
+      .build();
+  private final JsonAdapter<WithNullableClass> adapter = moshi.adapter(WithNullableClass.class);
+
+  @Test public void fromJsonRegion() throws Exception {
+    Buffer buffer = new Buffer().writeUtf8(FIRST).writeUtf8(SECOND);
+
+    WithNullableClass second = JsonBuffers.fromJson(adapter, buffer, FIRST.length(),
+        SECOND.length());
+    assertThat(second.value()).isEqualTo("two");
+    assertThat(second.nullableClass().string()).isEqualTo("nested");
+
+    WithNullableClass first = JsonBuffers.fromJson(adapter, buffer, 0, FIRST.length());
+    assertThat(first.value()).isEqualTo("one");
+    assertThat(buffer.readUtf8()).isEqualTo(FIRST + SECOND);
+  }
+
+  @Test public void fromJsonRejectsTrailingData() throws Exception {
+    Buffer buffer = new Buffer().writeUtf8(FIRST).writeUtf8(SECOND);
+    try {
+      JsonBuffers.fromJson(adapter, buffer, 0, buffer.size());
+      fail();
+    } catch (JsonEncodingException expected) {
+      assertThat(expected).hasMessageContaining("malformed JSON");
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.ryanharter.auto.value.moshi.JsonReaderOptions;
+import com.squareup.moshi.JsonReader;
+import okio.Buffer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class JsonReaderOptionsTest {
+  @Test public void sharedBetweenEqualNames() {
+    String[] names = {"id", "name"};
+    JsonReader.Options options = JsonReaderOptions.of(names);
+    names[0] = "changed";
+
+    assertThat(JsonReaderOptions.of("id", "name")).isSameAs(options);
+    assertThat(JsonReaderOptions.of("name", "id")).isNotSameAs(options);
+  }
+
+  @Test public void selectsNames() throws Exception {
+    JsonReader reader = JsonReader.of(new Buffer().writeUtf8("{\"name\":1,\"other\":2}"));
+    JsonReader.Options options = JsonReaderOptions.of("id", "name");
+
+    reader.beginObject();
+    assertThat(reader.selectName(options)).isEqualTo(1);
+    reader.skipValue();
+    assertThat(reader.selectName(options)).isEqualTo(-1);
+  }
+}
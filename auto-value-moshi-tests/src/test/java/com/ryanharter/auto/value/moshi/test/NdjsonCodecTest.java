@@ -0,0 +1,59 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.ryanharter.auto.value.moshi.NdjsonCodec;
+import com.squareup.moshi.Moshi;
+import okio.Buffer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class NdjsonCodecTest {
+  private static final String NDJSON = ""
+      + "{\"value\":\"one\"}\n"
+      + "{\"value\":\"two\",\"nullableClass\":{\"string\":\"nested\"}}\n"
+      + "{\"value\":\"three\"}\n";
+
+  private final Moshi moshi = new Moshi.Builder()
+      .add(FunctionalTestsAdapterFactory.create())
+      .build();
+  private final NdjsonCodec<WithNullableClass> codec =
+      new NdjsonCodec<>(moshi.adapter(WithNullableClass.class));
+
+  @Test public void readOneAtATime() throws Exception {
+    NdjsonCodec.Reader<WithNullableClass> reader = codec.reader(new Buffer().writeUtf8(NDJSON));
+
+    assertThat(reader.hasNext()).isTrue();
+    assertThat(reader.next().value()).isEqualTo("one");
+    assertThat(reader.next().nullableClass().string()).isEqualTo("nested");
+    assertThat(reader.next().value()).isEqualTo("three");
+    assertThat(reader.hasNext()).isFalse();
+  }
+
+  @Test public void readBatches() throws Exception {
+    NdjsonCodec.Reader<WithNullableClass> reader = codec.reader(new Buffer().writeUtf8(NDJSON));
+    WithNullableClass[] batch = new WithNullableClass[3];
+
+    assertThat(reader.read(batch, 1, 2)).isEqualTo(2);
+    assertThat(batch[0]).isNull();
+    assertThat(batch[1].value()).isEqualTo("one");
+    assertThat(batch[2].value()).isEqualTo("two");
+
+    assertThat(reader.read(batch, 0, 3)).isEqualTo(1);
+    assertThat(batch[0].value()).isEqualTo("three");
+
+    assertThat(reader.read(batch, 0, 3)).isEqualTo(-1);
+  }
+
+  @Test public void writeBatches() throws Exception {
+    WithNullableClass[] batch = new WithNullableClass[3];
+    codec.reader(new Buffer().writeUtf8(NDJSON)).read(batch, 0, 3);
+
+    Buffer buffer = new Buffer();
+    NdjsonCodec.Writer<WithNullableClass> writer = codec.writer(buffer);
+    writer.write(batch, 0, 2);
+    writer.write(batch[2]);
+    writer.flush();
+
+    assertThat(buffer.readUtf8()).isEqualTo(NDJSON);
+  }
+}
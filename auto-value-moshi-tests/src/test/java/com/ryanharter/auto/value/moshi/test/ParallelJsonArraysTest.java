@@ -0,0 +1,120 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.ryanharter.auto.value.moshi.ParallelJsonArrays;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonEncodingException;
+import com.squareup.moshi.Moshi;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public final class ParallelJsonArraysTest {
+  private final Moshi moshi = new Moshi.Builder()
+      .add(FunctionalTestsAdapterFactory.create())
+      .build();
+  private final JsonAdapter<WithNullableClass> adapter = moshi.adapter(WithNullableClass.class);
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @After public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test public void decodesInOrder() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap(array(5000).getBytes(StandardCharsets.UTF_8));
+
+    List<WithNullableClass> decoded = ParallelJsonArrays.decode(buffer, adapter, pool);
+
+    assertDecoded(decoded, 5000);
+    assertThat(buffer.position()).isEqualTo(0);
+  }
+
+  @Test public void decodesMoreChunksThanInFlight() throws Exception {
+    // Cut into more chunks than the pool's threads may have in flight at once
+    ByteBuffer buffer = ByteBuffer.wrap(array(100000).getBytes(StandardCharsets.UTF_8));
+
+    assertDecoded(ParallelJsonArrays.decode(buffer, adapter, pool), 100000);
+  }
+
+  @Test public void decodesFile() throws Exception {
+    File file = temporaryFolder.newFile();
+    Files.write(file.toPath(), array(5000).getBytes(StandardCharsets.UTF_8));
+
+    try (FileChannel channel = FileChannel.open(file.toPath())) {
+      assertDecoded(ParallelJsonArrays.decode(channel, adapter, pool), 5000);
+      assertThat(channel.position()).isEqualTo(0);
+    }
+  }
+
+  @Test public void decodesEmptyArray() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap(" [ ] ".getBytes(StandardCharsets.UTF_8));
+    assertThat(ParallelJsonArrays.decode(buffer, adapter, pool)).isEmpty();
+  }
+
+  @Test public void rejectsNonArray() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap("{\"value\":\"one\"}".getBytes(StandardCharsets.UTF_8));
+    try {
+      ParallelJsonArrays.decode(buffer, adapter, pool);
+      fail();
+    } catch (JsonEncodingException expected) {
+      assertThat(expected).hasMessage("Expected a JSON array at offset 0");
+    }
+  }
+
+  @Test public void rejectsUnterminatedArray() throws Exception {
+    String json = array(5000);
+    ByteBuffer buffer = ByteBuffer.wrap(json.substring(0, json.lastIndexOf(']'))
+        .getBytes(StandardCharsets.UTF_8));
+    try {
+      ParallelJsonArrays.decode(buffer, adapter, pool);
+      fail();
+    } catch (JsonEncodingException expected) {
+      assertThat(expected).hasMessage("Unterminated JSON array");
+    }
+  }
+
+  @Test public void rejectsDataAfterArray() throws Exception {
+    String json = array(5000);
+    ByteBuffer buffer = ByteBuffer.wrap((json + " \nxyz").getBytes(StandardCharsets.UTF_8));
+    try {
+      ParallelJsonArrays.decode(buffer, adapter, pool);
+      fail();
+    } catch (JsonEncodingException expected) {
+      assertThat(expected).hasMessage(
+          "Unexpected data after the array at offset " + (json.length() + 2));
+    }
+  }
+
+  private static String array(int count) {
+    StringBuilder json = new StringBuilder(" [\n");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(" ,\n");
+      }
+      // Strings containing structural characters must not split elements
+      json.append("{\"value\":\"").append(i).append(",]}[{\\\"\",")
+          .append("\"nullableClass\":{\"string\":\"nested\"}}");
+    }
+    return json.append("\n] ").toString();
+  }
+
+  private static void assertDecoded(List<WithNullableClass> decoded, int count) {
+    assertThat(decoded).hasSize(count);
+    for (int i = 0; i < count; i++) {
+      assertThat(decoded.get(i).value()).isEqualTo(i + ",]}[{\"");
+      assertThat(decoded.get(i).nullableClass().string()).isEqualTo("nested");
+    }
+  }
+}
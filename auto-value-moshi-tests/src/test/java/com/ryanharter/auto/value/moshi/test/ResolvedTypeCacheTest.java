@@ -0,0 +1,38 @@
+package com.ryanharter.auto.value.moshi.test;
+
+import com.ryanharter.auto.value.moshi.ResolvedTypeCache;
+import com.squareup.moshi.Types;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ResolvedTypeCacheTest {
+  List<String> strings;
+
+  @Test public void matchesEqualTypeArguments() throws Exception {
+    ResolvedTypeCache cache = new ResolvedTypeCache(4);
+    Type[] resolved = {Types.newParameterizedType(List.class, String.class)};
+    Type[] typeArguments = {Types.newParameterizedType(List.class, String.class)};
+    assertThat(cache.put(typeArguments, resolved)).isSameAs(resolved);
+    typeArguments[0] = Integer.class;
+
+    // The JDK's own ParameterizedType, as found by reflection
+    Type reflected = getClass().getDeclaredField("strings").getGenericType();
+    assertThat(cache.get(new Type[] {reflected})).isSameAs(resolved);
+    assertThat(cache.get(new Type[] {Integer.class})).isNull();
+  }
+
+  @Test public void evictsLeastRecentlyUsed() {
+    ResolvedTypeCache cache = new ResolvedTypeCache(2);
+    cache.put(new Type[] {String.class}, new Type[0]);
+    cache.put(new Type[] {Integer.class}, new Type[0]);
+    cache.get(new Type[] {String.class});
+    cache.put(new Type[] {Long.class}, new Type[0]);
+
+    assertThat(cache.get(new Type[] {String.class})).isNotNull();
+    assertThat(cache.get(new Type[] {Integer.class})).isNull();
+    assertThat(cache.get(new Type[] {Long.class})).isNotNull();
+  }
+}
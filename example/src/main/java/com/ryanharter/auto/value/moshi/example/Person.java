@@ -1,9 +1,11 @@
 package com.ryanharter.auto.value.moshi.example;
 
 import com.google.auto.value.AutoValue;
+import com.ryanharter.auto.value.moshi.MoshiAdapterOptions;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 
+@MoshiAdapterOptions(linkNestedAdapters = true)
 @AutoValue
 public abstract class Person {
     public abstract String name();